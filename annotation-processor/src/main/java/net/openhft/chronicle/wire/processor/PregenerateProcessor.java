@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Lists the interfaces and classes marked <code>@Pregenerate</code> in <code>META-INF/chronicle-wire/pregenerate</code>
+ * under the class output.
+ * <p>
+ * The MethodWriters and MethodReaders are generated from the compiled classes, by the existing generators, with
+ * <code>net.openhft.chronicle.wire.GenerateProxiesMain</code> once compilation has finished.
+ */
+@SupportedAnnotationTypes(PregenerateProcessor.PREGENERATE)
+public class PregenerateProcessor extends AbstractProcessor {
+    static final String PREGENERATE = "net.openhft.chronicle.wire.Pregenerate";
+    // as GenerateProxiesMain.INDEX
+    static final String INDEX = "META-INF/chronicle-wire/pregenerate";
+
+    private final Set<String> classNames = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.INTERFACE && element.getKind() != ElementKind.CLASS) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "@Pregenerate can only be used on an interface or a class", element);
+                    continue;
+                }
+                TypeElement type = (TypeElement) element;
+                classNames.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+            }
+        }
+        if (roundEnv.processingOver() && !classNames.isEmpty())
+            writeIndex();
+        return false;
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+            try (Writer writer = index.openWriter()) {
+                for (String className : classNames)
+                    writer.write(className + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + INDEX + " " + e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package net.openhft.chronicle.wire.processor;
+
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.time.Time;
+import net.openhft.chronicle.wire.GenerateProxiesMain;
+import net.openhft.chronicle.wire.Pregenerate;
+import org.junit.Test;
+
+import javax.tools.*;
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PregenerateProcessorTest {
+
+    private static final String EVENTS = "" +
+            "package pregenerate;\n" +
+            "import net.openhft.chronicle.wire.Pregenerate;\n" +
+            "@Pregenerate\n" +
+            "public interface Events {\n" +
+            "    void say(String text);\n" +
+            "    @Pregenerate\n" +
+            "    interface Nested {\n" +
+            "        void hello();\n" +
+            "    }\n" +
+            "}\n";
+    private static final String HANDLER = "" +
+            "package pregenerate;\n" +
+            "import net.openhft.chronicle.wire.Pregenerate;\n" +
+            "@Pregenerate\n" +
+            "public class Handler implements Events {\n" +
+            "    public void say(String text) {\n" +
+            "    }\n" +
+            "}\n";
+    // without a @Target so the compiler doesn't reject its use on a method before the processor sees it
+    private static final String UNTARGETED_PREGENERATE = "" +
+            "package net.openhft.chronicle.wire;\n" +
+            "public @interface Pregenerate {\n" +
+            "}\n";
+    private static final String ON_A_METHOD = "" +
+            "package pregenerate;\n" +
+            "import net.openhft.chronicle.wire.Pregenerate;\n" +
+            "public class OnAMethod {\n" +
+            "    @Pregenerate\n" +
+            "    public void method() {\n" +
+            "    }\n" +
+            "}\n";
+
+    private static JavaFileObject source(String className, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private static boolean compile(File classesDir, String classPath, DiagnosticCollector<JavaFileObject> diagnostics, JavaFileObject... sources) {
+        assertTrue(classesDir.mkdirs());
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> options = Arrays.asList("-d", classesDir.getPath(), "-classpath", classPath);
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, Arrays.asList(sources));
+        task.setProcessors(Collections.singletonList(new PregenerateProcessor()));
+        return task.call();
+    }
+
+    @Test
+    public void indexIsWhereGenerateProxiesMainReadsIt() {
+        assertEquals(GenerateProxiesMain.INDEX, PregenerateProcessor.INDEX);
+    }
+
+    @Test
+    public void listsBinaryNames() throws Exception {
+        File classesDir = new File(OS.getTarget(), "pregenerateProcessor-" + Time.uniqueId());
+        // the jar or directory @Pregenerate was loaded from, as the surefire class path may be a manifest only jar
+        String wireClasses = new File(Pregenerate.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        assertTrue(diagnostics.getDiagnostics().toString(),
+                compile(classesDir, wireClasses, diagnostics,
+                        source("pregenerate.Events", EVENTS),
+                        source("pregenerate.Handler", HANDLER)));
+
+        File index = new File(classesDir, GenerateProxiesMain.INDEX);
+        List<String> classNames = Files.readAllLines(index.toPath(), StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("pregenerate.Events", "pregenerate.Events$Nested", "pregenerate.Handler"), classNames);
+
+        // the names can be loaded as GenerateProxiesMain does
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDir.toURI().toURL()}, getClass().getClassLoader())) {
+            for (String className : classNames)
+                assertNotNull(Class.forName(className, false, classLoader).getAnnotation(Pregenerate.class));
+        }
+    }
+
+    @Test
+    public void errorOnANonType() {
+        File classesDir = new File(OS.getTarget(), "pregenerateProcessor-" + Time.uniqueId());
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        assertFalse(compile(classesDir, classesDir.getPath(), diagnostics,
+                source("net.openhft.chronicle.wire.Pregenerate", UNTARGETED_PREGENERATE),
+                source("pregenerate.OnAMethod", ON_A_METHOD)));
+
+        Diagnostic<? extends JavaFileObject> error = diagnostics.getDiagnostics().stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(diagnostics.getDiagnostics().toString()));
+        assertEquals("@Pregenerate can only be used on an interface or a class", error.getMessage(null));
+        assertTrue(error.getSource().getName(), error.getSource().getName().endsWith("OnAMethod.java"));
+        assertFalse(new File(classesDir, GenerateProxiesMain.INDEX).exists());
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *     Copyright (C) 2015-2020 chronicle.software
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Lesser General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.openhft.chronicle.wire.benchmarks;
+
+import net.openhft.affinity.Affinity;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.wire.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of batches of small documents sent through a pipe, one write and read per document with
+ * WireToOutputStream and InputStreamToWire, and batched with WireToChannel and ChannelToWire.
+ */
+@State(Scope.Thread)
+public class ChannelWireMain {
+    static final int BATCH = 100;
+
+    final AtomicLong streamRead = new AtomicLong();
+    final AtomicLong channelRead = new AtomicLong();
+    long streamSent, channelSent;
+    Pipe streamPipe, channelPipe;
+    WireToOutputStream wtos;
+    WireToChannel wtc;
+
+    public static void main(String... args) throws RunnerException, InvocationTargetException, IllegalAccessException, IOException {
+        Affinity.setAffinity(2);
+        if (Jvm.isDebug()) {
+            ChannelWireMain main = new ChannelWireMain();
+            main.setup();
+            for (Method m : ChannelWireMain.class.getMethods()) {
+                if (m.getAnnotation(Benchmark.class) != null) {
+                    for (int i = 0; i < 5; i++)
+                        m.invoke(main);
+                }
+            }
+            main.tearDown();
+        } else {
+            int time = Jvm.getBoolean("longTest") ? 30 : 2;
+            System.out.println("measurementTime: " + time + " secs");
+            Options opt = new OptionsBuilder()
+                    .include(ChannelWireMain.class.getSimpleName())
+                    .warmupIterations(5)
+                    .measurementIterations(5)
+                    .forks(1)
+                    .mode(Mode.Throughput)
+                    .measurementTime(TimeValue.seconds(time))
+                    .timeUnit(TimeUnit.SECONDS)
+                    .build();
+
+            new Runner(opt).run();
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        streamPipe = Pipe.open();
+        channelPipe = Pipe.open();
+        wtos = new WireToOutputStream(WireType.BINARY_LIGHT, Channels.newOutputStream(streamPipe.sink()));
+        wtc = new WireToChannel(WireType.BINARY_LIGHT, channelPipe.sink());
+
+        InputStreamToWire istw = new InputStreamToWire(WireType.BINARY_LIGHT, Channels.newInputStream(streamPipe.source()));
+        ChannelToWire ctw = new ChannelToWire(WireType.BINARY_LIGHT, channelPipe.source());
+        startReader("stream-reader", () -> {
+            istw.readOne().read("price").float64();
+            streamRead.incrementAndGet();
+        });
+        startReader("channel-reader", () -> {
+            try (DocumentContext dc = ctw.readingDocument()) {
+                if (dc.isPresent()) {
+                    dc.wire().read("price").float64();
+                    channelRead.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    private void startReader(String name, IORunnable reader) {
+        Thread thread = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted())
+                    reader.run();
+            } catch (IOException | RuntimeException e) {
+                // closed
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        streamPipe.sink().close();
+        channelPipe.sink().close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void stream() throws IOException {
+        for (int i = 0; i < BATCH; i++) {
+            wtos.getWire().write("price").float64(i);
+            wtos.flush();
+        }
+        streamSent += BATCH;
+        awaitRead(streamRead, streamSent);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void channel() throws IOException {
+        for (int i = 0; i < BATCH; i++) {
+            try (DocumentContext dc = wtc.writingDocument()) {
+                dc.wire().write("price").float64(i);
+            }
+        }
+        wtc.flush();
+        channelSent += BATCH;
+        awaitRead(channelRead, channelSent);
+    }
+
+    // wait for the reader so the pipe doesn't fill up between iterations
+    private static void awaitRead(AtomicLong read, long sent) {
+        while (read.get() < sent - 10 * BATCH)
+            Thread.yield();
+    }
+
+    interface IORunnable {
+        void run() throws IOException;
+    }
+}
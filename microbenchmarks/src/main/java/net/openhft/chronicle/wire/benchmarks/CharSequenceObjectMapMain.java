@@ -0,0 +1,120 @@
+/*
+ *     Copyright (C) 2015-2020 chronicle.software
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Lesser General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.openhft.chronicle.wire.benchmarks;
+
+import net.openhft.affinity.Affinity;
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.wire.CharSequenceObjectMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up a field name in a CharSequenceObjectMap, from a StringBuilder or straight from the bytes, with a
+ * HashMap of String which needs a String to be created for each lookup.
+ */
+@State(Scope.Thread)
+public class CharSequenceObjectMapMain {
+    static final int KEYS = 40;
+
+    final CharSequenceObjectMap<Integer> csoMap = new CharSequenceObjectMap<>(KEYS);
+    final Map<String, Integer> hashMap = new HashMap<>();
+    final Bytes<?> bytes = Bytes.allocateDirect(KEYS * 16L);
+    final long[] offsets = new long[KEYS];
+    final int[] lengths = new int[KEYS];
+    final StringBuilder sb = new StringBuilder();
+    int next = 0;
+
+    public CharSequenceObjectMapMain() {
+        for (int i = 0; i < KEYS; i++) {
+            String key = "field" + i;
+            csoMap.put(key, i);
+            hashMap.put(key, i);
+            offsets[i] = bytes.writePosition();
+            lengths[i] = key.length();
+            bytes.append8bit(key);
+        }
+    }
+
+    public static void main(String... args) throws RunnerException, InvocationTargetException, IllegalAccessException {
+        Affinity.setAffinity(2);
+        if (Jvm.isDebug()) {
+            CharSequenceObjectMapMain main = new CharSequenceObjectMapMain();
+            for (Method m : CharSequenceObjectMapMain.class.getMethods()) {
+                if (m.getAnnotation(Benchmark.class) != null) {
+                    for (int i = 0; i < 5; i++)
+                        m.invoke(main);
+                }
+            }
+        } else {
+            int time = Jvm.getBoolean("longTest") ? 30 : 2;
+            System.out.println("measurementTime: " + time + " secs");
+            Options opt = new OptionsBuilder()
+                    .include(CharSequenceObjectMapMain.class.getSimpleName())
+                    .warmupIterations(5)
+                    .measurementIterations(5)
+                    .forks(1)
+                    .mode(Mode.AverageTime)
+                    .measurementTime(TimeValue.seconds(time))
+                    .timeUnit(TimeUnit.NANOSECONDS)
+                    .build();
+
+            new Runner(opt).run();
+        }
+    }
+
+    private int nextKey() {
+        int i = next;
+        next = (i + 1) % KEYS;
+        sb.setLength(0);
+        for (int j = 0; j < lengths[i]; j++)
+            sb.append((char) bytes.readUnsignedByte(offsets[i] + j));
+        return i;
+    }
+
+    @Benchmark
+    public Integer hashMapOfString() {
+        nextKey();
+        return hashMap.get(sb.toString());
+    }
+
+    @Benchmark
+    public Integer charSequenceObjectMap() {
+        nextKey();
+        return csoMap.get(sb);
+    }
+
+    @Benchmark
+    public Integer charSequenceObjectMapBytesStore() {
+        int i = next;
+        next = (i + 1) % KEYS;
+        return csoMap.get(bytes, offsets[i], lengths[i]);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *     Copyright (C) 2015-2020 chronicle.software
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU Lesser General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU Lesser General Public License for more details.
+ *
+ *     You should have received a copy of the GNU Lesser General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.openhft.chronicle.wire.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.openhft.affinity.Affinity;
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.wire.JSONWire;
+import net.openhft.chronicle.wire.JsonCodec;
+import net.openhft.chronicle.wire.SelfDescribingMarshallable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing and reading a DTO as JSON with a generated JsonCodec, a JSONWire and the Jackson streaming API.
+ */
+@State(Scope.Thread)
+public class JsonCodecMain {
+    final Order order = new Order();
+    final Order order2 = new Order();
+    final JsonCodec<Order> codec = JsonCodec.of(Order.class);
+    final Bytes<?> bytes = Bytes.allocateElasticDirect(256);
+    final JSONWire wire = new JSONWire(Bytes.allocateElasticDirect(256));
+    final JsonFactory jsonFactory = new JsonFactory();
+    final Buffer buffer = new Buffer();
+
+    public JsonCodecMain() {
+        order.symbol = "EURUSD";
+        order.side = Side.Sell;
+        order.orderId = 1234567890L;
+        order.price = 1.18275;
+        order.quantity = 1e6;
+        order.timestamp = 1_600_000_000_123_456_789L;
+        order.active = true;
+    }
+
+    public static void main(String... args) throws RunnerException, InvocationTargetException, IllegalAccessException {
+        Affinity.setAffinity(2);
+        if (Jvm.isDebug()) {
+            JsonCodecMain main = new JsonCodecMain();
+            for (Method m : JsonCodecMain.class.getMethods()) {
+                if (m.getAnnotation(Benchmark.class) != null) {
+                    for (int i = 0; i < 5; i++)
+                        m.invoke(main);
+                }
+            }
+        } else {
+            int time = Jvm.getBoolean("longTest") ? 30 : 2;
+            System.out.println("measurementTime: " + time + " secs");
+            Options opt = new OptionsBuilder()
+                    .include(JsonCodecMain.class.getSimpleName())
+                    .warmupIterations(5)
+                    .measurementIterations(5)
+                    .forks(1)
+                    .mode(Mode.AverageTime)
+                    .measurementTime(TimeValue.seconds(time))
+                    .timeUnit(TimeUnit.NANOSECONDS)
+                    .build();
+
+            new Runner(opt).run();
+        }
+    }
+
+    @Benchmark
+    public Order jsonCodec() {
+        bytes.clear();
+        codec.write(order, bytes);
+        return codec.read(bytes, order2);
+    }
+
+    @Benchmark
+    public Order jsonWire() {
+        wire.clear();
+        wire.getValueOut().object(Order.class, order);
+        return wire.getValueIn().object(order2, Order.class);
+    }
+
+    @Benchmark
+    public Order jackson() throws IOException {
+        buffer.reset();
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            generator.writeStartObject();
+            generator.writeStringField("symbol", order.symbol);
+            generator.writeStringField("side", order.side.name());
+            generator.writeNumberField("orderId", order.orderId);
+            generator.writeNumberField("price", order.price);
+            generator.writeNumberField("quantity", order.quantity);
+            generator.writeNumberField("timestamp", order.timestamp);
+            generator.writeBooleanField("active", order.active);
+            generator.writeEndObject();
+        }
+        try (JsonParser parser = jsonFactory.createParser(buffer.buf(), 0, buffer.size())) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                switch (name) {
+                    case "symbol":
+                        order2.symbol = parser.getText();
+                        break;
+                    case "side":
+                        order2.side = Side.valueOf(parser.getText());
+                        break;
+                    case "orderId":
+                        order2.orderId = parser.getLongValue();
+                        break;
+                    case "price":
+                        order2.price = parser.getDoubleValue();
+                        break;
+                    case "quantity":
+                        order2.quantity = parser.getDoubleValue();
+                        break;
+                    case "timestamp":
+                        order2.timestamp = parser.getLongValue();
+                        break;
+                    case "active":
+                        order2.active = parser.getBooleanValue();
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+        }
+        return order2;
+    }
+
+    static class Order extends SelfDescribingMarshallable {
+        String symbol;
+        Side side;
+        long orderId;
+        double price;
+        double quantity;
+        long timestamp;
+        boolean active;
+    }
+
+    // reads the written bytes without a copy
+    static class Buffer extends ByteArrayOutputStream {
+        byte[] buf() {
+            return buf;
+        }
+    }
+}
@@ -17,13 +17,22 @@
 package net.openhft.chronicle.wire.benchmarks;
 
 import net.openhft.affinity.Affinity;
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.NativeBytesStore;
 import net.openhft.chronicle.bytes.util.Bit8StringInterner;
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.wire.ClassObjectPool;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.ObjectPool;
+import net.openhft.chronicle.wire.SelfDescribingMarshallable;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.WireType;
 import org.jetbrains.annotations.NotNull;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -33,8 +42,14 @@ import org.openjdk.jmh.runner.options.TimeValue;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Compares reading polymorphic fields and typed sequences with and without a {@link ClassObjectPool}. The gc
+ * profiler's gc.alloc.rate.norm shows the allocations per read.
+ */
 @State(Scope.Thread)
 public class ObjectPoolMain {
 
@@ -46,6 +61,16 @@ public class ObjectPoolMain {
     public static final NativeBytesStore CHAR32 = NativeBytesStore.from("A2345678901234567890123456789012");
     public static final byte[] BUFFER = new byte[32];
     final Bit8StringInterner si = new Bit8StringInterner(64);
+    final Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticDirect(256));
+    final ObjectPool pool = new ClassObjectPool(true);
+
+    public ObjectPoolMain() {
+        PolyHolder holder = new PolyHolder();
+        holder.payload = new Leg("EURUSD", 1.18275, 1e6);
+        for (int i = 0; i < 4; i++)
+            holder.legs.add(new Leg("EURUSD", 1.1827 + i * 1e-4, 1e6 * i));
+        wire.writeDocument(false, w -> w.write("holder").object(holder));
+    }
 
     public static void main(String... args) throws RunnerException, InvocationTargetException, IllegalAccessException {
         Affinity.setAffinity(2);
@@ -68,6 +93,7 @@ public class ObjectPoolMain {
                     .mode(Mode.AverageTime)
                     .measurementTime(TimeValue.seconds(time))
                     .timeUnit(TimeUnit.MICROSECONDS)
+                    .addProfiler(GCProfiler.class)
                     .build();
 
             new Runner(opt).run();
@@ -179,5 +205,44 @@ public class ObjectPoolMain {
     public String newStringB32() {
         return newStringHiByte0(CHAR32);
     }
-}
 
+    @Benchmark
+    public Object polymorphicRead() {
+        ObjectPool.forThisThread(null);
+        return readHolder();
+    }
+
+    @Benchmark
+    public Object polymorphicReadPooled() {
+        ObjectPool.forThisThread(pool);
+        try {
+            return readHolder();
+        } finally {
+            ObjectPool.forThisThread(null);
+        }
+    }
+
+    private Object readHolder() {
+        wire.bytes().readPosition(0);
+        try (DocumentContext dc = wire.readingDocument()) {
+            return dc.wire().read("holder").object(PolyHolder.class);
+        }
+    }
+
+    static class PolyHolder extends SelfDescribingMarshallable {
+        Object payload;
+        List<Object> legs = new ArrayList<>();
+    }
+
+    static class Leg extends SelfDescribingMarshallable {
+        String symbol;
+        double price;
+        double quantity;
+
+        Leg(String symbol, double price, double quantity) {
+            this.symbol = symbol;
+            this.price = price;
+            this.quantity = quantity;
+        }
+    }
+}
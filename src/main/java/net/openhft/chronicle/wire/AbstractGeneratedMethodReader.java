@@ -25,6 +25,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -264,4 +265,14 @@ public abstract class AbstractGeneratedMethodReader implements MethodReader {
             throw new AssertionError(e);
         }
     }
+
+    /**
+     * Helper method used by implementations to map an event name read into a StringBuilder to its String constant
+     */
+    protected static CharSequencePerfectHashMap<String> eventNames(String... names) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (String name : names)
+            map.put(name, name);
+        return new CharSequencePerfectHashMap<>(map);
+    }
 }
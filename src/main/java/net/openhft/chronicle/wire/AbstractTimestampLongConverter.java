@@ -1,14 +1,15 @@
 package net.openhft.chronicle.wire;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalQueries;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -20,14 +21,27 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * Parsing of ISO dates with or without timestamps is supported. When an ISO date
  * is read with no timezone, it is assumed to be in the converter's zone.
+ * <p>
+ * ISO dates of the form <code>yyyy-MM-ddTHH:mm:ss.fff</code> are written and read without
+ * creating any objects, caching the date prefix for the current day and the zone offset
+ * until the next transition. Anything else falls back to a {@link DateTimeFormatter}.
  */
 public abstract class AbstractTimestampLongConverter implements LongConverter {
     public static final ZoneId UTC = ZoneId.of("UTC");
     public static final String TIMESTAMP_LONG_CONVERTERS_ZONE_ID_SYSTEM_PROPERTY = "timestampLongConverters.zoneId";
+    private static final long NOT_PARSED = Long.MIN_VALUE;
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final long DAYS_0000_TO_1970 = 719528;
     private final ZoneId zoneId;
+    private final ZoneRules zoneRules;
+    private final boolean utc;
     private final DateTimeFormatter dtf;
     private final long amountPerSecond;
     private final long nanosPerAmount;
+    private final int fractionDigits;
+    // immutable, so can be shared between threads without locking.
+    private DatePrefix datePrefix;
+    private OffsetRange offsetRange;
 
     protected AbstractTimestampLongConverter(TimeUnit timeUnit) {
         this(System.getProperty(TIMESTAMP_LONG_CONVERTERS_ZONE_ID_SYSTEM_PROPERTY, UTC.toString()), timeUnit);
@@ -35,8 +49,11 @@ public abstract class AbstractTimestampLongConverter implements LongConverter {
 
     protected AbstractTimestampLongConverter(String zoneId, TimeUnit timeUnit) {
         this.zoneId = ZoneId.of(zoneId);
+        this.zoneRules = this.zoneId.getRules();
+        this.utc = this.zoneId.equals(UTC);
         this.amountPerSecond = timeUnit.convert(1, TimeUnit.SECONDS);
         this.nanosPerAmount = TimeUnit.NANOSECONDS.convert(1, timeUnit);
+        this.fractionDigits = Long.toString(amountPerSecond).length() - 1;
         this.dtf = createFormatter();
     }
 
@@ -44,6 +61,9 @@ public abstract class AbstractTimestampLongConverter implements LongConverter {
     public long parse(CharSequence text) {
         if (text == null || text.length() == 0)
             return 0;
+        long value = parseISO(text);
+        if (value != NOT_PARSED)
+            return value;
         try {
             if (text.length() > 4 && text.charAt(4) == '/')
                 text = text.toString().replace('/', '-');
@@ -99,15 +119,270 @@ public abstract class AbstractTimestampLongConverter implements LongConverter {
             text.append(value);
             return;
         }
+        long epochSecond = value / amountPerSecond;
+        long fraction = value % amountPerSecond;
+        OffsetRange range = utc ? null : offsetRangeFor(epochSecond);
+        long localSecond = epochSecond + (range == null ? 0 : range.offsetSeconds);
+        DatePrefix prefix = datePrefixFor(Math.floorDiv(localSecond, SECONDS_PER_DAY));
+        if (prefix == null) {
+            appendFormatted(text, value);
+            return;
+        }
+        int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+        text.append(prefix.text);
+        append2(text, secondOfDay / 3600);
+        text.append(':');
+        append2(text, secondOfDay / 60 % 60);
+        text.append(':');
+        append2(text, secondOfDay % 60);
+        if (fraction != 0)
+            appendFractionDigits(text, fraction);
+        if (range != null)
+            text.append(range.offsetId);
+    }
+
+    private void appendFormatted(StringBuilder text, long value) {
         LocalDateTime ldt = LocalDateTime.ofEpochSecond(
                 value / amountPerSecond,
                 (int) (value % amountPerSecond * nanosPerAmount),
                 ZoneOffset.UTC);
-        if (zoneId.equals(UTC)) {
+        if (utc) {
             dtf.formatTo(ldt, text);
         } else {
             dtf.formatTo(ZonedDateTime.of(ldt, UTC)
                     .withZoneSameInstant(zoneId), text);
         }
     }
+
+    private static void append2(StringBuilder text, int value) {
+        text.append((char) ('0' + value / 10));
+        text.append((char) ('0' + value % 10));
+    }
+
+    /**
+     * Append the fraction of a second without trailing zeros, as the DateTimeFormatter does.
+     */
+    private void appendFractionDigits(StringBuilder text, long fraction) {
+        int width = fractionDigits;
+        while (fraction % 10 == 0) {
+            fraction /= 10;
+            width--;
+        }
+        text.append('.');
+        for (long divisor = pow10(width - 1); divisor > 0; divisor /= 10)
+            text.append((char) ('0' + fraction / divisor % 10));
+    }
+
+    private static long pow10(int n) {
+        long pow = 1;
+        for (int i = 0; i < n; i++)
+            pow *= 10;
+        return pow;
+    }
+
+    @Nullable
+    private DatePrefix datePrefixFor(long epochDay) {
+        DatePrefix prefix = this.datePrefix;
+        if (prefix != null && prefix.epochDay == epochDay)
+            return prefix;
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        if (date.getYear() < 1 || date.getYear() > 9999)
+            return null;
+        StringBuilder sb = new StringBuilder(11);
+        sb.append((char) ('0' + date.getYear() / 1000))
+                .append((char) ('0' + date.getYear() / 100 % 10));
+        append2(sb, date.getYear() % 100);
+        sb.append('-');
+        append2(sb, date.getMonthValue());
+        sb.append('-');
+        append2(sb, date.getDayOfMonth());
+        sb.append('T');
+        return this.datePrefix = new DatePrefix(epochDay, sb.toString());
+    }
+
+    private OffsetRange offsetRangeFor(long epochSecond) {
+        OffsetRange range = this.offsetRange;
+        if (range != null && range.from <= epochSecond && epochSecond < range.to)
+            return range;
+        if (zoneRules.isFixedOffset()) {
+            ZoneOffset offset = zoneRules.getOffset(Instant.EPOCH);
+            return this.offsetRange = new OffsetRange(Long.MIN_VALUE, Long.MAX_VALUE, offset);
+        }
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        ZoneOffset offset = zoneRules.getOffset(instant);
+        ZoneOffsetTransition previous = zoneRules.previousTransition(instant);
+        ZoneOffsetTransition next = zoneRules.nextTransition(instant);
+        long from = previous == null ? Long.MIN_VALUE : previous.toEpochSecond();
+        if (previous != null && (from > epochSecond || !previous.getOffsetAfter().equals(offset)))
+            from = epochSecond;
+        long to = next == null ? Long.MAX_VALUE : next.toEpochSecond();
+        return this.offsetRange = new OffsetRange(from, to, offset);
+    }
+
+    /**
+     * Parse <code>yyyy-MM-ddTHH:mm:ss[.fff][Z|+HH:MM[:SS]]</code> without creating any objects.
+     *
+     * @return the timestamp or NOT_PARSED if the text needs the DateTimeFormatter.
+     */
+    private long parseISO(CharSequence text) {
+        int length = text.length();
+        if (length < 19)
+            return NOT_PARSED;
+        char sep = text.charAt(4);
+        if ((sep != '-' && sep != '/') || text.charAt(7) != sep
+                || text.charAt(10) != 'T' || text.charAt(13) != ':' || text.charAt(16) != ':')
+            return NOT_PARSED;
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59)
+            return NOT_PARSED;
+
+        int pos = 19;
+        long fraction = 0;
+        if (pos < length && text.charAt(pos) == '.') {
+            int start = ++pos;
+            for (char ch; pos < length && (ch = text.charAt(pos)) >= '0' && ch <= '9'; pos++)
+                fraction = fraction * 10 + (ch - '0');
+            int digits = pos - start;
+            if (digits == 0 || digits > fractionDigits)
+                return NOT_PARSED;
+            fraction *= pow10(fractionDigits - digits);
+        }
+
+        long localSecond = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+        long epochSecond;
+        if (pos == length) {
+            epochSecond = utc ? localSecond : localToEpochSecond(localSecond);
+            if (epochSecond == NOT_PARSED)
+                return NOT_PARSED;
+
+        } else {
+            int offsetSeconds = parseOffset(text, pos);
+            if (offsetSeconds == Integer.MIN_VALUE)
+                return NOT_PARSED;
+            epochSecond = localSecond - offsetSeconds;
+        }
+        return epochSecond * amountPerSecond + fraction;
+    }
+
+    /**
+     * @return the epoch second or NOT_PARSED if too close to a transition to be sure of the offset.
+     */
+    private long localToEpochSecond(long localSecond) {
+        OffsetRange range = this.offsetRange;
+        if (range == null)
+            range = offsetRangeFor(localSecond);
+        long epochSecond = localSecond - range.offsetSeconds;
+        if (!range.isWellInside(epochSecond)) {
+            range = offsetRangeFor(epochSecond);
+            epochSecond = localSecond - range.offsetSeconds;
+            if (!range.isWellInside(epochSecond))
+                return NOT_PARSED;
+        }
+        return epochSecond;
+    }
+
+    private static int parseOffset(CharSequence text, int pos) {
+        int length = text.length();
+        char ch = text.charAt(pos);
+        if (ch == 'Z')
+            return pos + 1 == length ? 0 : Integer.MIN_VALUE;
+        if ((ch != '+' && ch != '-') || (length != pos + 6 && length != pos + 9) || text.charAt(pos + 3) != ':')
+            return Integer.MIN_VALUE;
+        int hours = digits(text, pos + 1, 2);
+        int minutes = digits(text, pos + 4, 2);
+        int seconds = 0;
+        if (length == pos + 9) {
+            if (text.charAt(pos + 6) != ':')
+                return Integer.MIN_VALUE;
+            seconds = digits(text, pos + 7, 2);
+        }
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59)
+            return Integer.MIN_VALUE;
+        int offset = hours * 3600 + minutes * 60 + seconds;
+        return ch == '-' ? -offset : offset;
+    }
+
+    /**
+     * @return the value of the digits or -1 if any are not digits.
+     */
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char ch = text.charAt(i);
+            if (ch < '0' || ch > '9')
+                return -1;
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // as LocalDate.toEpochDay() for years 1 to 9999
+    private static long epochDay(int year, int month, int day) {
+        long total = 365L * year;
+        total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year))
+                total--;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    static final class DatePrefix {
+        final long epochDay;
+        final String text;
+
+        DatePrefix(long epochDay, String text) {
+            this.epochDay = epochDay;
+            this.text = text;
+        }
+    }
+
+    static final class OffsetRange {
+        final long from;
+        final long to;
+        final int offsetSeconds;
+        final String offsetId;
+
+        OffsetRange(long from, long to, ZoneOffset offset) {
+            this.from = from;
+            this.to = to;
+            this.offsetSeconds = offset.getTotalSeconds();
+            this.offsetId = offset.getId();
+        }
+
+        /**
+         * A local time within a day of a transition could be in a gap or overlap.
+         */
+        boolean isWellInside(long epochSecond) {
+            return (from == Long.MIN_VALUE || from + SECONDS_PER_DAY <= epochSecond)
+                    && (to == Long.MAX_VALUE || epochSecond < to - SECONDS_PER_DAY);
+        }
+    }
 }
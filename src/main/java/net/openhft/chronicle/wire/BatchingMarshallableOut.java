@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.core.io.Closeable;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link MarshallableOut} which writes many messages into one document of the underlying output, so the header is
+ * written and completed once per batch rather than once per message.
+ * <p>
+ * Each {@link #writingDocument(boolean)}, including those of a {@link net.openhft.chronicle.bytes.MethodWriter}, appends
+ * to the open batch. The batch is completed when it reaches the byte or message budget, or when {@link #flush()} or
+ * {@link #close()} is called. Until then none of its messages are visible to a reader, and the underlying output is
+ * held open.
+ * <p>
+ * A MethodReader reads every event in a document so reads the batch as the individual messages.
+ * A message rolled back is removed from the batch; a batch with no messages left is still completed, as an empty
+ * document.
+ */
+public class BatchingMarshallableOut implements MarshallableOut, Closeable {
+    static final int DEFAULT_MAX_BYTES = 16 << 10;
+    static final int DEFAULT_MAX_MESSAGES = 128;
+
+    private final MarshallableOut out;
+    private final int maxBytes;
+    private final int maxMessages;
+    private final BatchElement element = new BatchElement();
+    private DocumentContext batch;
+    private long batchStart;
+    private int messages;
+    private boolean closed;
+
+    public BatchingMarshallableOut(@NotNull MarshallableOut out) {
+        this(out, DEFAULT_MAX_BYTES, DEFAULT_MAX_MESSAGES);
+    }
+
+    /**
+     * @param out         to write the batches to
+     * @param maxBytes    complete the batch once it is at least this many bytes
+     * @param maxMessages complete the batch once it has this many messages
+     */
+    public BatchingMarshallableOut(@NotNull MarshallableOut out, int maxBytes, int maxMessages) {
+        if (maxBytes <= 0 || maxMessages <= 0)
+            throw new IllegalArgumentException("maxBytes and maxMessages must be positive");
+        this.out = out;
+        this.maxBytes = maxBytes;
+        this.maxMessages = maxMessages;
+    }
+
+    @NotNull
+    @Override
+    public DocumentContext writingDocument(boolean metaData) throws UnrecoverableTimeoutException {
+        element.start(metaData);
+        return element;
+    }
+
+    @Override
+    public DocumentContext acquireWritingDocument(boolean metaData) throws UnrecoverableTimeoutException {
+        if (element.isOpen() && element.chainedElement())
+            return element;
+        return writingDocument(metaData);
+    }
+
+    @Override
+    public boolean recordHistory() {
+        return out.recordHistory();
+    }
+
+    /**
+     * @return the number of messages in the open batch
+     */
+    public int batchedMessages() {
+        return messages;
+    }
+
+    /**
+     * Complete the open batch, if any.
+     */
+    public void flush() {
+        if (element.isOpen())
+            throw new IllegalStateException("A message is being written");
+        if (batch == null)
+            return;
+        DocumentContext dc = batch;
+        batch = null;
+        messages = 0;
+        dc.close();
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        flush();
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    final class BatchElement implements WriteDocumentContext {
+        private long start;
+        private int count = 0;
+        private boolean chainedElement;
+        private boolean rollback;
+
+        @Override
+        public void start(boolean metaData) {
+            if (count++ > 0) {
+                assert metaData == isMetaData();
+                return;
+            }
+            if (closed)
+                throw new IllegalStateException("Closed");
+            if (batch != null && batch.isMetaData() != metaData)
+                flush();
+            if (batch == null) {
+                batch = out.writingDocument(metaData);
+                batchStart = batch.wire().bytes().writePosition();
+            }
+            start = batch.wire().bytes().writePosition();
+            rollback = false;
+            chainedElement = false;
+        }
+
+        @Override
+        public boolean chainedElement() {
+            return chainedElement;
+        }
+
+        @Override
+        public void chainedElement(boolean chainedElement) {
+            this.chainedElement = chainedElement;
+        }
+
+        @Override
+        public boolean isMetaData() {
+            return batch != null && batch.isMetaData();
+        }
+
+        @Override
+        public boolean isPresent() {
+            return false;
+        }
+
+        @Override
+        public Wire wire() {
+            return batch.wire();
+        }
+
+        @Override
+        public boolean isNotComplete() {
+            return count > 0;
+        }
+
+        @Override
+        public void rollbackOnClose() {
+            rollback = true;
+        }
+
+        @Override
+        public int sourceId() {
+            return -1;
+        }
+
+        @Override
+        public long index() {
+            return Long.MIN_VALUE;
+        }
+
+        @Override
+        public void close() {
+            if (chainedElement)
+                return;
+            if (count == 0)
+                throw new IllegalStateException("count == 0");
+            if (--count > 0)
+                return;
+            Wire wire = batch.wire();
+            if (rollback) {
+                wire.bytes().writePosition(start);
+                return;
+            }
+            if (++messages >= maxMessages || wire.bytes().writePosition() - batchStart >= maxBytes)
+                flush();
+        }
+    }
+}
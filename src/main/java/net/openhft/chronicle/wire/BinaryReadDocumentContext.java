@@ -108,6 +108,7 @@ public class BinaryReadDocumentContext implements ReadDocumentContext {
 
     @Override
     public void close() {
+        ObjectPools.documentClosed();
         if (rollbackIfNeeded())
             return;
 
@@ -152,6 +153,8 @@ public class BinaryReadDocumentContext implements ReadDocumentContext {
     @Override
     public void start() {
         rollback = false;
+        // fields read out of order in the last document are not in this one.
+        wire.getValueIn().resetState();
         wire.getValueOut().resetBetweenDocuments();
         readPosition = readLimit = -1;
         @NotNull final Bytes<?> bytes = wire.bytes();
@@ -460,27 +460,86 @@ public class BinaryWire extends AbstractWire implements Wire {
     private <T> ValueIn read(CharSequence keyName, int keyCode, T defaultSource, @NotNull Function<T, Object> defaultLookup) {
         ValueInState curr = valueIn.curr();
         @NotNull StringBuilder sb = acquireStringBuilder();
+        if (curr.isIndexed()) {
+            if (curr.isIndexedFor(bytes.readLimit()))
+                return readIndexed(keyName, keyCode, defaultSource, defaultLookup, curr, sb);
+            // indexed for another document which wasn't read with a DocumentContext.
+            curr.reset();
+        }
         // did we save the position last time
         // so we could go back and parseOne an older field?
         if (curr.savedPosition() > 0) {
             bytes.readPosition(curr.savedPosition() - 1);
             curr.savedPosition(0L);
         }
-        while (bytes.readRemaining() > 0) {
+        if (bytes.readRemaining() > 0) {
             long position = bytes.readPosition();
             // at the current position look for the field.
-            readField(sb, keyName, keyCode);
+            int peekCode = peekCodeAfterPadding();
+            readField(peekCode, keyName, keyCode, sb, true);
             if (sb.length() == 0 || StringUtils.isEqual(sb, keyName))
                 return valueIn;
 
-            // if no old field nor current field matches, set to default values.
-            // we may come back and set the field later if we find it.
-            curr.addUnexpected(position);
+            // the first field out of order, index the rest of the fields so every read from now on is one lookup.
+            bytes.readPosition(position);
+            indexFields(keyName, keyCode, curr, sb);
+            return readIndexed(keyName, keyCode, defaultSource, defaultLookup, curr, sb);
+        }
+
+        return read2(keyName, keyCode, defaultSource, defaultLookup, curr, sb, keyName);
+    }
+
+    private void indexFields(CharSequence keyName, int keyCode, @NotNull ValueInState curr, @NotNull StringBuilder sb) {
+        while (bytes.readRemaining() > 0) {
+            long position = bytes.readPosition();
+            int peekCode = peekCodeAfterPadding();
+            readField(peekCode, keyName, keyCode, sb, true);
+            // numbered fields are named by the key they are read with so can't be hashed now.
+            int hash = peekCode == FIELD_NUMBER || sb.length() == 0 ? ValueInState.NO_HASH : fieldNameHash(sb);
+            curr.addUnexpected(position, hash);
             valueIn.consumeNext();
             consumePadding();
         }
+        curr.buildIndex(bytes.readLimit());
+    }
 
-        return read2(keyName, keyCode, defaultSource, defaultLookup, curr, sb, keyName);
+    private <T> ValueIn readIndexed(CharSequence keyName,
+                                    int keyCode,
+                                    T defaultSource,
+                                    @NotNull Function<T, Object> defaultLookup,
+                                    @NotNull ValueInState curr,
+                                    @NotNull StringBuilder sb) {
+        long end = bytes.readLimit();
+        int nameHash = fieldNameHash(keyName);
+        // the earliest field with this name comes first as they were added in order.
+        for (int slot = curr.firstSlot(nameHash), i; (i = curr.slotEntry(slot)) >= 0; slot = curr.nextSlot(slot)) {
+            if (curr.unexpectedHash(i) == nameHash && readIndexedField(keyName, keyCode, curr, sb, i))
+                return valueIn;
+        }
+        if (curr.hasUnhashed()) {
+            for (int i = 0; i < curr.unexpectedSize(); i++) {
+                if (curr.unexpectedHash(i) == ValueInState.NO_HASH && readIndexedField(keyName, keyCode, curr, sb, i))
+                    return valueIn;
+            }
+        }
+        bytes.readPosition(end);
+
+        acquireDefaultValueIn();
+        defaultValueIn.defaultValue = defaultLookup.apply(defaultSource);
+        return defaultValueIn;
+    }
+
+    private boolean readIndexedField(CharSequence keyName, int keyCode, @NotNull ValueInState curr, @NotNull StringBuilder sb, int i) {
+        long position = curr.unexpected(i);
+        if (position < 0)
+            return false;
+        bytes.readPosition(position);
+        readField(sb, keyName, keyCode);
+        if (sb.length() == 0 || StringUtils.isEqual(sb, keyName)) {
+            curr.consumed(i);
+            return true;
+        }
+        return false;
     }
 
     protected <T> ValueIn read2(CharSequence keyName,
@@ -491,9 +550,14 @@ public class BinaryWire extends AbstractWire implements Wire {
                                 @NotNull StringBuilder sb,
                                 CharSequence name) {
         long position2 = bytes.readLimit();
+        int nameHash = curr.unexpectedSize() > 0 ? fieldNameHash(name) : ValueInState.NO_HASH;
 
         // if not a match go back and look at old fields.
         for (int i = 0; i < curr.unexpectedSize(); i++) {
+            // skip fields whose name can't match without reading it again.
+            int hash = curr.unexpectedHash(i);
+            if (hash != ValueInState.NO_HASH && hash != nameHash)
+                continue;
             bytes.readPosition(curr.unexpected(i));
             readField(sb, keyName, keyCode);
             if (sb.length() == 0 || StringUtils.isEqual(sb, name)) {
@@ -510,6 +574,11 @@ public class BinaryWire extends AbstractWire implements Wire {
         return defaultValueIn;
     }
 
+    private static int fieldNameHash(CharSequence name) {
+        int hash = CharSequencePerfectHashMap.hash(name, 0);
+        return hash == ValueInState.NO_HASH ? 1 : hash;
+    }
+
     private DefaultValueIn acquireDefaultValueIn() {
         if (defaultValueIn == null)
             defaultValueIn = new DefaultValueIn(this);
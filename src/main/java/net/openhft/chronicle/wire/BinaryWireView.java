@@ -0,0 +1,340 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.ClassLocal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A flyweight view of the fields of a {@link BinaryWire} document, which reads only the fields asked for.
+ * <p>
+ * The view is an interface of getters, one per field, with the same name as the field, e.g. <code>long price()</code>
+ * reads the field <code>price</code>. A getter can return a primitive, a String, a CharSequence, an enum or another
+ * view interface for a nested Marshallable. Any other type is read as an object. An implementation is generated by
+ * {@link GenerateBinaryWireView} the first time a view of the interface is created.
+ * <pre>
+ * Order order = BinaryWireView.of(Order.class);
+ * try (DocumentContext dc = wire.readingDocument()) {
+ *     BinaryWireView.wrap(order, dc.wire());
+ *     if (order.price() &gt; limit)
+ *         route(order.symbol());
+ * }
+ * </pre>
+ * The first getter called after a {@link #wrap(WireIn)} indexes where each field's value starts, without decoding any
+ * of them. Each getter then decodes only its own value, in place. A field missing from the document reads as
+ * <code>0</code>, <code>false</code> or <code>null</code>.
+ * <p>
+ * A view holds no copy of the data so it is only valid until the document is closed. The CharSequence returned is
+ * reused by the next call to the same getter. A view is not thread safe.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public abstract class BinaryWireView {
+    private static final ClassLocal<Class> VIEW_CL = ClassLocal.withInitial(GenerateBinaryWireView::acquireClass);
+
+    private final String[] names;
+    private final Class[] types;
+    private final CharSequencePerfectHashMap<Integer> fieldIndex;
+    private final long[] offsets;
+    private final StringBuilder name = new StringBuilder();
+    private StringBuilder[] texts;
+    private BinaryWireView[] views;
+    private BinaryWire wire;
+    private long start, end;
+    private boolean indexed;
+
+    protected BinaryWireView(@NotNull Class<?> viewType) {
+        Method[] getters = getters(viewType);
+        names = new String[getters.length];
+        types = new Class[getters.length];
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (int i = 0; i < getters.length; i++) {
+            names[i] = getters[i].getName();
+            types[i] = getters[i].getReturnType();
+            map.put(names[i], i);
+        }
+        fieldIndex = new CharSequencePerfectHashMap<>(map);
+        offsets = new long[getters.length];
+    }
+
+    /**
+     * @return a new view of this interface, not yet wrapping a document.
+     */
+    @NotNull
+    public static <V> V of(@NotNull Class<V> viewType) {
+        if (!viewType.isInterface())
+            throw new IllegalArgumentException(viewType + " is not an interface");
+        try {
+            return (V) VIEW_CL.get(viewType).getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create a view of " + viewType.getName(), e);
+        }
+    }
+
+    /**
+     * Point a view created by {@link #of(Class)} at the rest of the document being read.
+     *
+     * @return the view
+     */
+    @NotNull
+    public static <V> V wrap(@NotNull V view, @NotNull WireIn wire) {
+        ((BinaryWireView) view).wrap(wire);
+        return view;
+    }
+
+    /**
+     * @return the getters of the view in the order the generated code numbers them.
+     */
+    static Method[] getters(Class<?> viewType) {
+        return Arrays.stream(viewType.getMethods())
+                .filter(m -> !m.isDefault()
+                        && !Modifier.isStatic(m.getModifiers())
+                        && m.getDeclaringClass() != Object.class)
+                .peek(m -> {
+                    if (m.getParameterCount() != 0 || m.getReturnType() == void.class)
+                        throw new IllegalArgumentException("Only getters are supported in a view, not " + m);
+                })
+                .sorted(Comparator.comparing(Method::getName))
+                .toArray(Method[]::new);
+    }
+
+    /**
+     * View the fields between the read position and the read limit of this wire.
+     */
+    public void wrap(@NotNull WireIn wire) {
+        Bytes<?> bytes = wire.bytes();
+        wrap(wire, bytes.readPosition(), bytes.readLimit());
+    }
+
+    /**
+     * View the fields between these positions of this wire.
+     */
+    public void wrap(@NotNull WireIn wire, long start, long end) {
+        if (!(wire instanceof BinaryWire))
+            throw new IllegalArgumentException("A view can only read a BinaryWire, not " + wire.getClass().getName());
+        this.wire = (BinaryWire) wire;
+        this.start = start;
+        this.end = end;
+        this.indexed = false;
+    }
+
+    private void index() {
+        if (wire == null)
+            throw new IllegalStateException("Not wrapping a document");
+        Arrays.fill(offsets, -1);
+        Bytes<?> bytes = wire.bytes();
+        long position = bytes.readPosition();
+        long limit = bytes.readLimit();
+        try {
+            bytes.readLimit(end);
+            bytes.readPosition(start);
+            while (true) {
+                wire.consumePadding();
+                long pos = bytes.readPosition();
+                if (pos >= end)
+                    break;
+                ValueIn valueIn = wire.read(name);
+                Integer field = name.length() == 0 ? null : fieldIndex.get(name);
+                if (field != null && offsets[field] < 0)
+                    offsets[field] = bytes.readPosition();
+                valueIn.skipValue();
+                // not a field or a value, stop rather than spin
+                if (bytes.readPosition() == pos)
+                    break;
+            }
+        } finally {
+            bytes.readLimit(limit);
+            bytes.readPosition(position);
+        }
+        indexed = true;
+    }
+
+    /**
+     * @return the ValueIn positioned at the value of the field, or <code>null</code> if it is not in the document.
+     * The caller must call {@link #restore(long, long)}
+     */
+    @Nullable
+    private ValueIn valueIn(int field) {
+        if (!indexed)
+            index();
+        long offset = offsets[field];
+        if (offset < 0)
+            return null;
+        Bytes<?> bytes = wire.bytes();
+        bytes.readLimit(end);
+        bytes.readPosition(offset);
+        return wire.getValueIn();
+    }
+
+    private void restore(long position, long limit) {
+        Bytes<?> bytes = wire.bytes();
+        bytes.readLimit(limit);
+        bytes.readPosition(position);
+    }
+
+    protected boolean bool(int field) {
+        Bytes<?> bytes = bytes();
+        long position = bytes.readPosition(), limit = bytes.readLimit();
+        try {
+            ValueIn valueIn = valueIn(field);
+            return valueIn != null && valueIn.bool();
+        } finally {
+            restore(position, limit);
+        }
+    }
+
+    protected byte int8(int field) {
+        return (byte) int64(field);
+    }
+
+    protected short int16(int field) {
+        return (short) int64(field);
+    }
+
+    protected int int32(int field) {
+        return (int) int64(field);
+    }
+
+    protected long int64(int field) {
+        Bytes<?> bytes = bytes();
+        long position = bytes.readPosition(), limit = bytes.readLimit();
+        try {
+            ValueIn valueIn = valueIn(field);
+            return valueIn == null ? 0 : valueIn.int64();
+        } finally {
+            restore(position, limit);
+        }
+    }
+
+    protected float float32(int field) {
+        return (float) float64(field);
+    }
+
+    protected double float64(int field) {
+        Bytes<?> bytes = bytes();
+        long position = bytes.readPosition(), limit = bytes.readLimit();
+        try {
+            ValueIn valueIn = valueIn(field);
+            return valueIn == null ? 0 : valueIn.float64();
+        } finally {
+            restore(position, limit);
+        }
+    }
+
+    /**
+     * @return the text in a StringBuilder reused by this field, or <code>null</code>
+     */
+    @Nullable
+    protected CharSequence text(int field) {
+        Bytes<?> bytes = bytes();
+        long position = bytes.readPosition(), limit = bytes.readLimit();
+        try {
+            ValueIn valueIn = valueIn(field);
+            if (valueIn == null)
+                return null;
+            if (texts == null)
+                texts = new StringBuilder[names.length];
+            StringBuilder sb = texts[field];
+            if (sb == null)
+                sb = texts[field] = new StringBuilder();
+            return valueIn.textTo(sb);
+        } finally {
+            restore(position, limit);
+        }
+    }
+
+    @Nullable
+    protected String string(int field) {
+        Bytes<?> bytes = bytes();
+        long position = bytes.readPosition(), limit = bytes.readLimit();
+        try {
+            ValueIn valueIn = valueIn(field);
+            return valueIn == null ? null : valueIn.text();
+        } finally {
+            restore(position, limit);
+        }
+    }
+
+    @Nullable
+    protected Enum asEnum(int field) {
+        Bytes<?> bytes = bytes();
+        long position = bytes.readPosition(), limit = bytes.readLimit();
+        try {
+            ValueIn valueIn = valueIn(field);
+            return valueIn == null ? null : valueIn.asEnum(types[field]);
+        } finally {
+            restore(position, limit);
+        }
+    }
+
+    /**
+     * @return the nested view of this field, reused by this field, or <code>null</code>
+     */
+    @Nullable
+    protected Object view(int field) {
+        Bytes<?> bytes = bytes();
+        long position = bytes.readPosition(), limit = bytes.readLimit();
+        try {
+            ValueIn valueIn = valueIn(field);
+            if (valueIn == null || valueIn.isNull())
+                return null;
+            long length = valueIn.readLength();
+            if (length < 0)
+                throw new IllegalStateException("Unable to view " + names[field] + ", length unknown");
+            if (views == null)
+                views = new BinaryWireView[names.length];
+            BinaryWireView view = views[field];
+            if (view == null)
+                view = views[field] = (BinaryWireView) of(types[field]);
+            long from = bytes.readPosition();
+            view.wrap(wire, from, from + length);
+            return view;
+        } finally {
+            restore(position, limit);
+        }
+    }
+
+    /**
+     * Read the field in full, for types with no in place getter.
+     */
+    @Nullable
+    protected Object object(int field) {
+        Bytes<?> bytes = bytes();
+        long position = bytes.readPosition(), limit = bytes.readLimit();
+        try {
+            ValueIn valueIn = valueIn(field);
+            return valueIn == null ? null : valueIn.object(types[field]);
+        } finally {
+            restore(position, limit);
+        }
+    }
+
+    private Bytes<?> bytes() {
+        if (wire == null)
+            throw new IllegalStateException("Not wrapping a document");
+        return wire.bytes();
+    }
+}
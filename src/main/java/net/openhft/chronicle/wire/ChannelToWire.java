@@ -0,0 +1,211 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Maths;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads documents with a 4-byte big-endian length prefix, as written by {@link WireToOutputStream} or
+ * {@link WireToChannel}, from a channel.
+ * <p>
+ * Each read from the channel fills as much of a large direct buffer as is available, so many small documents are
+ * read with one system call. The buffer grows if a document doesn't fit. As a {@link MarshallableIn} it can be
+ * consumed by a {@link net.openhft.chronicle.bytes.MethodReader}.
+ * <p>
+ * A non-blocking channel will return no document until a whole document has been read.
+ */
+public class ChannelToWire implements MarshallableIn, Closeable {
+    static final int DEFAULT_CAPACITY = 1 << 20;
+
+    private final WireType wireType;
+    private final ReadableByteChannel channel;
+    private final ReadContext readContext = new ReadContext();
+    private ByteBuffer buffer;
+    private Bytes<ByteBuffer> bytes;
+    private Wire wire;
+    // the first byte not consumed, the buffer's position is the end of the bytes read.
+    private int start;
+    private int documentStart;
+    private boolean eof;
+    private boolean closed;
+
+    public ChannelToWire(WireType wireType, ReadableByteChannel channel) {
+        this(wireType, channel, DEFAULT_CAPACITY);
+    }
+
+    public ChannelToWire(WireType wireType, ReadableByteChannel channel, int capacity) {
+        this.wireType = wireType;
+        this.channel = channel;
+        allocate(Maths.nextPower2(capacity, 4096));
+    }
+
+    private void allocate(int capacity) {
+        buffer = ByteBuffer.allocateDirect(capacity);
+        bytes = Bytes.wrapForRead(buffer);
+        wire = wireType.apply(bytes);
+    }
+
+    /**
+     * @return the wire for the next document, valid until the next read, or null if there isn't a whole document yet,
+     * or at the end of the stream.
+     */
+    @Nullable
+    public Wire readOne() throws IOException {
+        if (!ensureAvailable(4))
+            return null;
+        int length = buffer.getInt(start);
+        if (length < 0)
+            throw new StreamCorruptedException("length: " + length);
+        if (!ensureAvailable(4 + length))
+            return null;
+        wire.clear();
+        bytes.readPositionRemaining(start + 4, length);
+        documentStart = start;
+        start += 4 + length;
+        return wire;
+    }
+
+    /**
+     * @return whether the end of the stream has been reached
+     */
+    public boolean isEndOfStream() {
+        return eof && buffer.position() == start;
+    }
+
+    private boolean ensureAvailable(int required) throws IOException {
+        while (buffer.position() - start < required) {
+            if (eof) {
+                if (buffer.position() == start)
+                    return false;
+                throw new EOFException("Incomplete document, " + (buffer.position() - start) + " bytes");
+            }
+            if (start + required > buffer.capacity())
+                makeRoom(required);
+            int read = channel.read(buffer);
+            if (read < 0)
+                eof = true;
+            else if (read == 0)
+                return false;
+        }
+        return true;
+    }
+
+    private void makeRoom(int required) {
+        ByteBuffer old = buffer;
+        old.flip().position(start);
+        if (required > old.capacity()) {
+            Bytes<ByteBuffer> oldBytes = bytes;
+            allocate(Maths.nextPower2(required, 4096));
+            buffer.put(old);
+            oldBytes.releaseLast();
+        } else {
+            old.compact();
+        }
+        start = 0;
+    }
+
+    @NotNull
+    @Override
+    public DocumentContext readingDocument() {
+        try {
+            Wire next = readOne();
+            return next == null ? NoDocumentContext.INSTANCE : readContext.start(documentStart);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        bytes.releaseLast();
+        Closeable.closeQuietly(channel);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    final class ReadContext implements DocumentContext {
+        private int previousStart;
+        private boolean rollback;
+
+        ReadContext start(int previousStart) {
+            this.previousStart = previousStart;
+            this.rollback = false;
+            return this;
+        }
+
+        @Override
+        public boolean isMetaData() {
+            return false;
+        }
+
+        @Override
+        public boolean isPresent() {
+            return true;
+        }
+
+        @Override
+        public Wire wire() {
+            return wire;
+        }
+
+        @Override
+        public boolean isNotComplete() {
+            return false;
+        }
+
+        @Override
+        public void rollbackOnClose() {
+            rollback = true;
+        }
+
+        @Override
+        public int sourceId() {
+            return -1;
+        }
+
+        @Override
+        public long index() {
+            return Long.MIN_VALUE;
+        }
+
+        @Override
+        public void close() {
+            // read it again next time
+            if (rollback)
+                start = previousStart;
+            rollback = false;
+        }
+    }
+}
@@ -17,49 +17,117 @@
  */
 package net.openhft.chronicle.wire;
 
+import net.openhft.chronicle.bytes.BytesStore;
 import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.core.util.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * An open addressing map of CharSequence to value which doesn't allocate on lookup.
+ * <p>
+ * Keys can be looked up as a CharSequence or as an 8-bit range of a BytesStore so callers can skip decoding the key.
+ * The table doubles in size when the load factor is exceeded.
+ */
 public class CharSequenceObjectMap<T> {
     private static final int K0 = 0x6d0f27bd;
     @SuppressWarnings("unused")
     private static final int M0 = 0x5bc80bad;
+    private static final float LOAD_FACTOR = 0.5f;
 
-    final String[] keys;
-    final T[] values;
-    final int mask;
+    String[] keys;
+    T[] values;
+    int mask;
+    private int size;
+    private int resizeAt;
 
-    @SuppressWarnings("unchecked")
     public CharSequenceObjectMap(int capacity) {
-        int nextPower2 = Maths.nextPower2(capacity, 16);
+        // keep the table at most half full for short probe sequences.
+        allocate(Maths.nextPower2((int) (capacity / LOAD_FACTOR), 16));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int nextPower2) {
         keys = new String[nextPower2];
         values = (T[]) new Object[nextPower2];
         mask = nextPower2 - 1;
+        resizeAt = (int) (nextPower2 * LOAD_FACTOR);
     }
 
-    public void put(CharSequence name, T t) {
-        int h = hashFor(name);
-        for (int i = 0; i < mask; i++) {
-            if (keys[i] == null || StringUtils.isEqual(keys[i], name)) {
-                keys[i] = name.toString();
-                values[i] = t;
+    public void put(@NotNull CharSequence name, T t) {
+        for (int h = hashFor(name); ; h = (h + 1) & mask) {
+            String key = keys[h];
+            if (key == null) {
+                keys[h] = name.toString();
+                values[h] = t;
+                if (++size > resizeAt)
+                    resize();
                 return;
             }
-            h = (h + 1) & mask;
+            if (StringUtils.isEqual(key, name)) {
+                values[h] = t;
+                return;
+            }
+        }
+    }
+
+    private void resize() {
+        String[] keys0 = keys;
+        T[] values0 = values;
+        allocate(keys0.length * 2);
+        for (int i = 0; i < keys0.length; i++) {
+            String key = keys0[i];
+            if (key == null)
+                continue;
+            int h = hashFor(key);
+            while (keys[h] != null)
+                h = (h + 1) & mask;
+            keys[h] = key;
+            values[h] = values0[i];
+        }
+    }
+
+    @Nullable
+    public T get(@NotNull CharSequence cs) {
+        for (int h = hashFor(cs); ; h = (h + 1) & mask) {
+            String key = keys[h];
+            if (key == null)
+                return null;
+            if (StringUtils.isEqual(key, cs))
+                return values[h];
         }
-        throw new IllegalStateException("Map is full");
     }
 
-    public T get(CharSequence cs) {
-        int h = hashFor(cs);
-        for (int i = 0; i < mask; i++) {
-            if (keys[i] == null)
+    /**
+     * Lookup a key encoded as 8-bit characters without creating a CharSequence for it.
+     *
+     * @param bs     containing the key
+     * @param offset of the first byte of the key
+     * @param length of the key in bytes
+     * @return the value or null if not found
+     */
+    @Nullable
+    public T get(@NotNull BytesStore bs, long offset, int length) {
+        for (int h = hashFor(bs, offset, length); ; h = (h + 1) & mask) {
+            String key = keys[h];
+            if (key == null)
                 return null;
-            if (StringUtils.isEqual(keys[i], cs))
-                return values[i];
-            h = (h + 1) & mask;
+            if (isEqual(key, bs, offset, length))
+                return values[h];
         }
-        throw new IllegalStateException("Map is full");
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static boolean isEqual(String key, BytesStore bs, long offset, int length) {
+        if (key.length() != length)
+            return false;
+        for (int i = 0; i < length; i++)
+            if (key.charAt(i) != bs.readUnsignedByte(offset + i))
+                return false;
+        return true;
     }
 
     private int hashFor(CharSequence name) {
@@ -69,4 +137,12 @@ public class CharSequenceObjectMap<T> {
         }
         return (int) Maths.agitate(h) & mask;
     }
+
+    private int hashFor(BytesStore bs, long offset, int length) {
+        long h = length;
+        for (int i = 0; i < length; i++) {
+            h = h * K0 + bs.readUnsignedByte(offset + i);
+        }
+        return (int) Maths.agitate(h) & mask;
+    }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.core.Maths;
+import net.openhft.chronicle.core.util.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable map from a fixed set of names, e.g. the fields of a class, built once so that every name has a slot of
+ * its own. A lookup is one hash and one equality check, without any probing.
+ * <p>
+ * This is a minimal perfect hash, with one slot per name, built by hash and displace: the names are hashed into
+ * buckets of about {@value #NAMES_PER_BUCKET}, and each bucket, largest first, is given a displacement which places all
+ * its names in free slots. A lookup hashes the name once, and mixes in the displacement of its bucket to find the slot.
+ */
+public class CharSequencePerfectHashMap<T> {
+    static final int NAMES_PER_BUCKET = 4;
+    private static final int K0 = 0x6d0f27bd;
+    private static final long DISPLACEMENT_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int MAX_DISPLACEMENT = 1 << 24;
+
+    final String[] keys;
+    final T[] values;
+    // per bucket
+    final int[] displacements;
+
+    @SuppressWarnings("unchecked")
+    public CharSequencePerfectHashMap(@NotNull Map<? extends CharSequence, T> map) {
+        // last one wins for duplicate names.
+        Map<String, T> entries = new LinkedHashMap<>();
+        map.forEach((k, v) -> entries.put(k.toString(), v));
+        String[] names = entries.keySet().toArray(new String[0]);
+        int n = names.length;
+
+        keys = new String[n];
+        values = (T[]) new Object[n];
+        displacements = new int[Math.max(1, (n + NAMES_PER_BUCKET - 1) / NAMES_PER_BUCKET)];
+        long[] hashes = new long[n];
+        List<List<Integer>> buckets = new ArrayList<>();
+        for (int i = 0; i < displacements.length; i++)
+            buckets.add(new ArrayList<>());
+        for (int i = 0; i < n; i++) {
+            hashes[i] = hash64(names[i], 0);
+            buckets.get(bucketFor(hashes[i])).add(i);
+        }
+        Integer[] order = new Integer[buckets.size()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        // the largest buckets are placed first, while there are the most free slots.
+        Arrays.sort(order, (a, b) -> Integer.compare(buckets.get(b).size(), buckets.get(a).size()));
+
+        int[] slots = new int[NAMES_PER_BUCKET * 4];
+        for (int b : order) {
+            List<Integer> bucket = buckets.get(b);
+            if (bucket.isEmpty())
+                break;
+            if (slots.length < bucket.size())
+                slots = new int[bucket.size()];
+            int d = findDisplacement(bucket, hashes, slots);
+            if (d < 0)
+                throw new IllegalStateException("Unable to find a perfect hash for " + entries.keySet());
+            displacements[b] = d;
+            for (int j = 0; j < bucket.size(); j++) {
+                int i = bucket.get(j);
+                keys[slots[j]] = names[i];
+                values[slots[j]] = entries.get(names[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the first displacement which places every name of the bucket in a free slot, or -1 if there is none.
+     */
+    private int findDisplacement(List<Integer> bucket, long[] hashes, int[] slots) {
+        int n = keys.length;
+        for (int d = 0; d < MAX_DISPLACEMENT; d++) {
+            boolean free = true;
+            for (int j = 0; j < bucket.size() && free; j++) {
+                int slot = slotFor(hashes[bucket.get(j)], d, n);
+                if (keys[slot] != null)
+                    free = false;
+                for (int k = 0; k < j && free; k++)
+                    if (slots[k] == slot)
+                        free = false;
+                slots[j] = slot;
+            }
+            if (free)
+                return d;
+        }
+        return -1;
+    }
+
+    /**
+     * @return a hash of the characters, which varies with the seed.
+     */
+    public static int hash(@NotNull CharSequence name, int seed) {
+        return (int) hash64(name, seed);
+    }
+
+    private static long hash64(@NotNull CharSequence name, int seed) {
+        // an odd multiplier per seed gives an independent hash function per seed.
+        long k = K0 + 2L * seed;
+        long h = name.length();
+        for (int i = 0; i < name.length(); i++) {
+            h = h * k + name.charAt(i);
+        }
+        return Maths.agitate(h);
+    }
+
+    private int bucketFor(long hash) {
+        return reduce((int) (hash >>> 32), displacements.length);
+    }
+
+    private static int slotFor(long hash, int displacement, int n) {
+        return reduce((int) Maths.agitate(hash + displacement * DISPLACEMENT_MULTIPLIER), n);
+    }
+
+    // maps a hash to [0, n) with a multiply rather than a division.
+    private static int reduce(int hash, int n) {
+        return (int) (((hash & 0xFFFFFFFFL) * n) >>> 32);
+    }
+
+    @Nullable
+    public T get(@NotNull CharSequence cs) {
+        int n = keys.length;
+        if (n == 0)
+            return null;
+        long hash = hash64(cs, 0);
+        int index = slotFor(hash, displacements[bucketFor(hash)], n);
+        String key = keys[index];
+        return StringUtils.isEqual(key, cs) ? values[index] : null;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.core.ClassLocal;
+import net.openhft.chronicle.core.util.CoreDynamicEnum;
+import net.openhft.chronicle.core.util.ObjectUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link ObjectPool} for one thread which keeps free instances of each concrete {@link Marshallable} class.
+ * Instances are reset to their default values when acquired again.
+ * <p>
+ * With <code>releaseOnClose</code>, every instance acquired is released when the reading DocumentContext it was read in
+ * is closed, so they mustn't be retained after that. Otherwise they are returned with {@link #release(Object)}.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class ClassObjectPool implements ObjectPool {
+    static final int DEFAULT_MAX_PER_CLASS = 64;
+    private static final ClassLocal<Boolean> POOLABLE = ClassLocal.withInitial(ClassObjectPool::isPoolable);
+
+    private final Map<Class, ArrayDeque<Object>> free = new IdentityHashMap<>();
+    private final List<Object> acquired = new ArrayList<>();
+    private final int maxPerClass;
+    private final boolean releaseOnClose;
+
+    public ClassObjectPool(boolean releaseOnClose) {
+        this(DEFAULT_MAX_PER_CLASS, releaseOnClose);
+    }
+
+    /**
+     * @param maxPerClass    the most free instances to keep for each class
+     * @param releaseOnClose whether to release all the instances acquired when a document is closed
+     */
+    public ClassObjectPool(int maxPerClass, boolean releaseOnClose) {
+        this.maxPerClass = maxPerClass;
+        this.releaseOnClose = releaseOnClose;
+    }
+
+    private static boolean isPoolable(Class<?> tClass) {
+        return Marshallable.class.isAssignableFrom(tClass)
+                && ObjectUtils.isConcreteClass(tClass)
+                && !tClass.isEnum()
+                && !CoreDynamicEnum.class.isAssignableFrom(tClass)
+                && !Throwable.class.isAssignableFrom(tClass);
+    }
+
+    @Nullable
+    @Override
+    public <T> T acquire(@NotNull Class<T> tClass) {
+        if (!POOLABLE.get(tClass))
+            return null;
+        ArrayDeque<Object> deque = free.get(tClass);
+        Object o = deque == null ? null : deque.pollLast();
+        if (o == null)
+            o = ObjectUtils.newInstance(tClass);
+        else
+            // so fields which aren't read don't refer to objects which may be pooled.
+            Wires.reset(o);
+        if (releaseOnClose)
+            acquired.add(o);
+        return (T) o;
+    }
+
+    @Override
+    public void release(@NotNull Object o) {
+        ArrayDeque<Object> deque = free.computeIfAbsent(o.getClass(), c -> new ArrayDeque<>());
+        if (deque.size() < maxPerClass)
+            deque.addLast(o);
+    }
+
+    @Override
+    public void documentClosed() {
+        if (acquired.isEmpty())
+            return;
+        for (int i = 0; i < acquired.size(); i++)
+            release(acquired.get(i));
+        acquired.clear();
+    }
+
+    /**
+     * @return the number of free instances of a class
+     */
+    public int freeCount(Class<?> tClass) {
+        ArrayDeque<Object> deque = free.get(tClass);
+        return deque == null ? 0 : deque.size();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Reads a sequence into an existing collection, reading into the elements already there where possible and keeping
+ * surplus elements in a pool for the next read. See {@link RecycleElements}
+ */
+final class CollectionRecycler {
+    static final boolean RECYCLE_ELEMENTS = Jvm.getBoolean("wire.recycle.elements");
+    static final int MAX_POOLED = 256;
+    private static final ThreadLocal<List<Object>> POOL = ThreadLocal.withInitial(ArrayList::new);
+
+    private CollectionRecycler() {
+    }
+
+    /**
+     * @return the pool used when there is no per field pool
+     */
+    static List<Object> pool() {
+        return POOL.get();
+    }
+
+    /**
+     * Replaces the contents of coll with the sequence being read.
+     *
+     * @param componentType of the elements, or null to infer it from each element
+     * @param pool          to take elements from, and add surplus elements to
+     */
+    static void read(@NotNull Collection<Object> coll, @NotNull ValueIn in, @Nullable Class componentType, @NotNull List<Object> pool) {
+        if (coll instanceof List && coll instanceof RandomAccess)
+            readList((List<Object>) coll, in, componentType, pool);
+        else
+            readCollection(coll, in, componentType, pool);
+    }
+
+    private static void readList(@NotNull List<Object> list, @NotNull ValueIn in, @Nullable Class componentType, @NotNull List<Object> pool) {
+        final Bytes<?> bytes = in.wireIn().bytes();
+        long pos = bytes.readPosition();
+        int size = list.size();
+        int count = 0;
+        while (in.hasNextSequenceItem()) {
+            if (count < size) {
+                Object using = list.get(count);
+                Object element = readElement(in, using, componentType, null);
+                if (element != using) {
+                    list.set(count, element);
+                    release(pool, using);
+                }
+            } else {
+                list.add(readElement(in, take(pool), componentType, pool));
+            }
+            count++;
+            pos = checkProgress(bytes, pos);
+        }
+        for (int i = list.size() - 1; i >= count; i--)
+            release(pool, list.remove(i));
+    }
+
+    private static void readCollection(@NotNull Collection<Object> coll, @NotNull ValueIn in, @Nullable Class componentType, @NotNull List<Object> pool) {
+        for (Object element : coll)
+            release(pool, element);
+        coll.clear();
+        final Bytes<?> bytes = in.wireIn().bytes();
+        long pos = bytes.readPosition();
+        while (in.hasNextSequenceItem()) {
+            coll.add(readElement(in, take(pool), componentType, pool));
+            pos = checkProgress(bytes, pos);
+        }
+    }
+
+    /**
+     * @param pool to return using to if it isn't read into, or null if the caller does
+     */
+    private static Object readElement(@NotNull ValueIn in, @Nullable Object using, @Nullable Class componentType, @Nullable List<Object> pool) {
+        if (componentType == Object.class)
+            componentType = null;
+        if (using instanceof Marshallable) {
+            // without a component type, a pooled object can be of any class so is only used if the next item is one too.
+            Class type = componentType != null ? componentType : nextIsA(in, using.getClass()) ? using.getClass() : null;
+            if (type != null)
+                return in.object(using, type);
+            if (pool != null)
+                release(pool, using);
+        }
+        return componentType == null ? in.object() : in.object(componentType);
+    }
+
+    /**
+     * @return whether the next item has a type prefix of this class, without reading it
+     */
+    private static boolean nextIsA(@NotNull ValueIn in, @NotNull Class type) {
+        WireIn wireIn = in.wireIn();
+        // only these wires can be rewound by the read position.
+        if (!(wireIn instanceof BinaryWire || wireIn instanceof TextWire))
+            return false;
+        Bytes<?> bytes = wireIn.bytes();
+        long pos = bytes.readPosition();
+        try {
+            return in.typePrefix() == type;
+        } finally {
+            bytes.readPosition(pos);
+        }
+    }
+
+    private static long checkProgress(@NotNull Bytes<?> bytes, long pos) {
+        long pos2 = bytes.readPosition();
+        if (pos2 <= pos && !Jvm.isDebug())
+            throw new IllegalStateException(bytes.toDebugString());
+        return pos2;
+    }
+
+    @Nullable
+    private static Object take(@NotNull List<Object> pool) {
+        return pool.isEmpty() ? null : pool.remove(pool.size() - 1);
+    }
+
+    private static void release(@NotNull List<Object> pool, @Nullable Object element) {
+        if (element instanceof Marshallable && pool.size() < MAX_POOLED)
+            pool.add(element);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.wire.utils.JavaSourceCodeFormatter;
+import net.openhft.chronicle.wire.utils.SourceCodeFormatter;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+
+import static net.openhft.compiler.CompilerUtils.CACHED_COMPILER;
+
+/**
+ * Responsible for code generation and its runtime compilation of the {@link BinaryWireView} of an interface.
+ * <p>
+ * Each getter is numbered by its position in {@link BinaryWireView#getters(Class)} and calls the matching decoder of
+ * the view with that number, so the primitive getters don't box.
+ */
+final class GenerateBinaryWireView {
+    private static final boolean DUMP_CODE = Jvm.getBoolean("dumpCode");
+
+    private final Class<?> viewType;
+    private final String packageName;
+    private final String className;
+    private final SourceCodeFormatter sourceCode = new JavaSourceCodeFormatter();
+
+    private GenerateBinaryWireView(Class<?> viewType) {
+        this.viewType = viewType;
+        String name = viewType.getName();
+        int lastDot = name.lastIndexOf('.');
+        // in the same package so a package local interface can be implemented.
+        this.packageName = lastDot < 0 ? "" : name.substring(0, lastDot);
+        this.className = GenerateWireMarshaller.identifierFor(name.substring(lastDot + 1)) + "BinaryWireView";
+    }
+
+    static Class<?> acquireClass(@NotNull Class<?> viewType) {
+        try {
+            return new GenerateBinaryWireView(viewType).acquireClass();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unable to generate a view of " + viewType.getName(), e);
+        }
+    }
+
+    private static String kind(Class<?> type) {
+        if (type.isPrimitive()) {
+            if (type == boolean.class)
+                return "bool";
+            if (type == byte.class)
+                return "int8";
+            if (type == short.class)
+                return "int16";
+            if (type == int.class)
+                return "int32";
+            if (type == long.class)
+                return "int64";
+            if (type == float.class)
+                return "float32";
+            if (type == double.class)
+                return "float64";
+            // i.e. char
+            return null;
+        }
+        if (type == String.class)
+            return "string";
+        if (type == CharSequence.class)
+            return "text";
+        if (type.isEnum() && !DynamicEnum.class.isAssignableFrom(type))
+            return "asEnum";
+        if (type.isInterface() && !type.getName().startsWith("java"))
+            return "view";
+        return null;
+    }
+
+    private Class<?> acquireClass() throws ClassNotFoundException {
+        ClassLoader classLoader = viewType.getClassLoader();
+        if (classLoader == null)
+            classLoader = BinaryWireView.class.getClassLoader();
+        String fullName = packageName.isEmpty() ? className : packageName + '.' + className;
+        try {
+            return classLoader.loadClass(fullName);
+
+        } catch (ClassNotFoundException cnfe) {
+            // ignored
+        }
+        try {
+            generateSourceCode();
+            if (DUMP_CODE)
+                System.out.println(sourceCode);
+
+            return CACHED_COMPILER.loadFromJava(classLoader, fullName, sourceCode.toString());
+
+        } catch (AssertionError e) {
+            if (e.getCause() instanceof LinkageError)
+                return Class.forName(fullName, true, classLoader);
+            throw e;
+        }
+    }
+
+    private void generateSourceCode() {
+        String typeName = viewType.getCanonicalName();
+        if (!packageName.isEmpty())
+            sourceCode.append("package " + packageName + ";\n" +
+                    "\n");
+        sourceCode.append("" +
+                "import net.openhft.chronicle.wire.BinaryWireView;\n" +
+                "\n" +
+                "// generated for " + viewType.getName() + "\n" +
+                "public final class " + className + " extends BinaryWireView implements " + typeName + " {\n" +
+                "public " + className + "() {\n" +
+                "super(" + typeName + ".class);\n" +
+                "}\n");
+        Method[] getters = BinaryWireView.getters(viewType);
+        for (int i = 0; i < getters.length; i++) {
+            Method getter = getters[i];
+            Class<?> type = getter.getReturnType();
+            String returnType = type.getCanonicalName();
+            String kind = kind(type);
+            sourceCode.append("\n" +
+                    "@Override\n" +
+                    "public " + returnType + " " + getter.getName() + "() {\n");
+            if (kind == null)
+                sourceCode.append("return (" + (type.isPrimitive() ? "Character" : returnType) + ") object(" + i + ");\n");
+            else if (type.isPrimitive() || kind.equals("string") || kind.equals("text"))
+                sourceCode.append("return " + kind + "(" + i + ");\n");
+            else
+                sourceCode.append("return (" + returnType + ") " + kind + "(" + i + ");\n");
+            sourceCode.append("}\n");
+        }
+        sourceCode.append("}\n");
+    }
+}
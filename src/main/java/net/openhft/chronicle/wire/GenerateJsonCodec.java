@@ -0,0 +1,255 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.wire.utils.JavaSourceCodeFormatter;
+import net.openhft.chronicle.wire.utils.SourceCodeFormatter;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+import static net.openhft.compiler.CompilerUtils.CACHED_COMPILER;
+
+/**
+ * Responsible for code generation and its runtime compilation of class specific {@link JsonCodec}s.
+ * <p>
+ * The generated codec writes each key as a constant byte[] followed by the value read with its Unsafe offset, and
+ * reads by expecting the same keys in the same order, so there is no field lookup.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class GenerateJsonCodec {
+    private static final boolean DUMP_CODE = Jvm.getBoolean("dumpCode");
+    private static final String PACKAGE_NAME = JsonCodec.class.getPackage().getName();
+
+    private final Class<?> tClass;
+    private final WireMarshaller.FieldAccess[] fields;
+    private final String className;
+    private final SourceCodeFormatter sourceCode = new JavaSourceCodeFormatter();
+
+    private GenerateJsonCodec(Class<?> tClass, WireMarshaller.FieldAccess[] fields) {
+        this.tClass = tClass;
+        this.fields = fields;
+        this.className = GenerateWireMarshaller.identifierFor(tClass.getName()) + "JsonCodec";
+    }
+
+    /**
+     * @return whether the class uses the default readMarshallable and writeMarshallable and has only fields the
+     * generated code handles.
+     */
+    static boolean isSupported(@NotNull Class<?> tClass) {
+        if (!Marshallable.class.isAssignableFrom(tClass)
+                || tClass.isInterface()
+                || tClass.isEnum()
+                || Modifier.isAbstract(tClass.getModifiers()))
+            return false;
+        try {
+            if (!isDefault(tClass.getMethod("writeMarshallable", WireOut.class).getDeclaringClass())
+                    || !isDefault(tClass.getMethod("readMarshallable", WireIn.class).getDeclaringClass()))
+                return false;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+        WireMarshaller.FieldAccess[] fields = WireMarshaller.WIRE_MARSHALLER_CL.get(tClass).fields;
+        if (fields.length == 0)
+            return false;
+        for (WireMarshaller.FieldAccess field : fields) {
+            if (kind(field) == null)
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isDefault(Class<?> declaringClass) {
+        return declaringClass == Marshallable.class || declaringClass == AbstractMarshallableCfg.class;
+    }
+
+    /**
+     * @return a generated codec for this class or <code>null</code> if it could not be generated.
+     */
+    static <T> JsonCodec<T> newCodec(@NotNull Class<T> tClass) {
+        try {
+            WireMarshaller.FieldAccess[] fields = WireMarshaller.WIRE_MARSHALLER_CL.get(tClass).fields;
+            Class<?> codecClass = new GenerateJsonCodec(tClass, fields).acquireClass();
+            Class[] types = new Class[fields.length];
+            for (int i = 0; i < fields.length; i++)
+                types[i] = fields[i].field.getType();
+            Constructor<?> constructor = codecClass.getConstructor(Class.class, Class[].class);
+            return (JsonCodec<T>) constructor.newInstance(tClass, types);
+
+        } catch (Throwable t) {
+            Jvm.warn().on(GenerateJsonCodec.class, "Unable to generate a JsonCodec for " + tClass.getName() + ", using JSONWire", t);
+            return null;
+        }
+    }
+
+    private static String kind(WireMarshaller.FieldAccess field) {
+        // exact classes only, the conversion sub-classes change the text
+        Class<?> faClass = field.getClass();
+        if (faClass == WireMarshaller.BooleanFieldAccess.class)
+            return "Boolean";
+        if (faClass == WireMarshaller.ByteFieldAccess.class)
+            return "Byte";
+        if (faClass == WireMarshaller.ShortFieldAccess.class)
+            return "Short";
+        if (faClass == WireMarshaller.IntegerFieldAccess.class)
+            return "Int";
+        if (faClass == WireMarshaller.LongFieldAccess.class)
+            return "Long";
+        if (faClass == WireMarshaller.FloatFieldAccess.class)
+            return "Float";
+        if (faClass == WireMarshaller.DoubleFieldAccess.class)
+            return "Double";
+        if (faClass == WireMarshaller.StringFieldAccess.class)
+            return "String";
+        Class<?> type = field.field.getType();
+        if (faClass == WireMarshaller.ObjectFieldAccess.class
+                && type.isEnum()
+                && !DynamicEnum.class.isAssignableFrom(type)
+                && !WriteMarshallable.class.isAssignableFrom(type))
+            return "Enum";
+        return null;
+    }
+
+    private static String offset(WireMarshaller.FieldAccess field) {
+        return field.offset + "L";
+    }
+
+    private Class<?> acquireClass() throws ClassNotFoundException {
+        ClassLoader classLoader = JsonCodec.class.getClassLoader();
+        String fullName = PACKAGE_NAME + '.' + className;
+        try {
+            return classLoader.loadClass(fullName);
+
+        } catch (ClassNotFoundException cnfe) {
+            // ignored
+        }
+        try {
+            generateSourceCode();
+            if (DUMP_CODE)
+                System.out.println(sourceCode);
+
+            return CACHED_COMPILER.loadFromJava(classLoader, fullName, sourceCode.toString());
+
+        } catch (AssertionError e) {
+            if (e.getCause() instanceof LinkageError)
+                return Class.forName(fullName, true, classLoader);
+            throw e;
+        }
+    }
+
+    private void generateSourceCode() {
+        sourceCode.append("" +
+                "package " + PACKAGE_NAME + ";\n" +
+                "\n" +
+                "import net.openhft.chronicle.bytes.Bytes;\n" +
+                "\n" +
+                "import static net.openhft.chronicle.core.UnsafeMemory.*;\n" +
+                "\n" +
+                "// generated for " + tClass.getName() + "\n" +
+                "public final class " + className + " extends JsonCodec {\n");
+        generateFields();
+        generateConstructor();
+        generateWrite();
+        generateReadFields();
+        sourceCode.append("}\n");
+    }
+
+    private void generateFields() {
+        for (int i = 0; i < fields.length; i++) {
+            String name = fields[i].field.getName();
+            sourceCode.append("private static final byte[] K").append(i).append(" = key(\"")
+                    .append(i == 0 ? "{" : ",").append("\\\"").append(name).append("\\\":\");\n");
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (kind(fields[i]).equals("Enum"))
+                sourceCode.append("private final Class c").append(i).append(";\n");
+        }
+        sourceCode.append("\n");
+    }
+
+    private void generateConstructor() {
+        sourceCode.append("public " + className + "(Class tClass, Class[] types) {\n" +
+                "super(tClass);\n");
+        for (int i = 0; i < fields.length; i++) {
+            if (kind(fields[i]).equals("Enum"))
+                sourceCode.append("c").append(i).append(" = types[").append(i).append("];\n");
+        }
+        sourceCode.append("}\n\n");
+    }
+
+    private void generateWrite() {
+        sourceCode.append("@Override\n" +
+                "public void write(Object t, Bytes bytes) {\n");
+        for (int i = 0; i < fields.length; i++) {
+            WireMarshaller.FieldAccess field = fields[i];
+            String kind = kind(field);
+            sourceCode.append("bytes.write(K").append(i).append(");\n");
+            switch (kind) {
+                case "Boolean":
+                    sourceCode.append("writeBoolean(bytes, unsafeGetBoolean(t, ").append(offset(field)).append("));\n");
+                    break;
+                case "Byte":
+                case "Short":
+                case "Int":
+                case "Long":
+                    sourceCode.append("writeLong(bytes, unsafeGet").append(kind).append("(t, ").append(offset(field)).append("));\n");
+                    break;
+                case "Float":
+                case "Double":
+                    sourceCode.append("write").append(kind).append("(bytes, unsafeGet").append(kind).append("(t, ").append(offset(field)).append("));\n");
+                    break;
+                case "String":
+                    sourceCode.append("writeString(bytes, (String) unsafeGetObject(t, ").append(offset(field)).append("));\n");
+                    break;
+                case "Enum":
+                    sourceCode.append("writeEnum(bytes, (Enum) unsafeGetObject(t, ").append(offset(field)).append("));\n");
+                    break;
+                default:
+                    throw new AssertionError(kind);
+            }
+        }
+        sourceCode.append("bytes.writeUnsignedByte('}');\n" +
+                "}\n\n");
+    }
+
+    private void generateReadFields() {
+        sourceCode.append("@Override\n" +
+                "protected boolean readFields(Object t, Bytes bytes) {\n");
+        for (int i = 0; i < fields.length; i++) {
+            WireMarshaller.FieldAccess field = fields[i];
+            String kind = kind(field);
+            sourceCode.append("if (!expectKey(bytes, K").append(i).append("))\n" +
+                    "return false;\n");
+            switch (kind) {
+                case "String":
+                    sourceCode.append("unsafePutObject(t, ").append(offset(field)).append(", readString(bytes));\n");
+                    break;
+                case "Enum":
+                    sourceCode.append("unsafePutObject(t, ").append(offset(field)).append(", readEnum(bytes, c").append(i).append("));\n");
+                    break;
+                default:
+                    sourceCode.append("unsafePut").append(kind).append("(t, ").append(offset(field)).append(", read").append(kind).append("(bytes));\n");
+                    break;
+            }
+        }
+        sourceCode.append("return expectEnd(bytes);\n" +
+                "}\n");
+    }
+}
@@ -25,6 +25,7 @@ import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.core.util.Annotations;
 import net.openhft.chronicle.wire.utils.JavaSourceCodeFormatter;
 import net.openhft.chronicle.wire.utils.SourceCodeFormatter;
+import net.openhft.compiler.CachedCompiler;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.annotation.Annotation;
@@ -82,6 +83,16 @@ public class GenerateMethodReader {
      * @return {@link MethodReader} implementation for specified {@link #instances}.
      */
     public Class<?> createClass() {
+        return createClass(CACHED_COMPILER);
+    }
+
+    /**
+     * Generates and compiles code of a custom {@link MethodReader}.
+     *
+     * @param compiler the compiler to use, e.g. one which writes the class to a build directory
+     * @return {@link MethodReader} implementation for specified {@link #instances}.
+     */
+    public Class<?> createClass(CachedCompiler compiler) {
         if (!isSourceCodeGenerated)
             generateSourceCode();
 
@@ -89,7 +100,7 @@ public class GenerateMethodReader {
         final String fullClassName = packageName() + "." + generatedClassName();
 
         try {
-            return CACHED_COMPILER.loadFromJava(classLoader, fullClassName, sourceCode.toString());
+            return compiler.loadFromJava(classLoader, fullClassName, sourceCode.toString());
         } catch (AssertionError e) {
             if (e.getCause() instanceof LinkageError) {
                 try {
@@ -162,6 +173,14 @@ public class GenerateMethodReader {
             sourceCode.append("\n");
         }
 
+        sourceCode.append("// event names are matched without creating a String\n");
+        sourceCode.append("private static final CharSequencePerfectHashMap<String> EVENT_NAMES = eventNames(");
+        sourceCode.append("MethodReader.HISTORY");
+        for (String methodName : handledMethodNames)
+            sourceCode.append(format(", \"%s\"", methodName));
+        sourceCode.append(");\n");
+        sourceCode.append("private final StringBuilder eventNameSB = new StringBuilder();\n\n");
+
         if (hasChainedCalls) {
             sourceCode.append("// chained call result\n");
             sourceCode.append("private Object chainedCallReturnResult;");
@@ -196,14 +215,18 @@ public class GenerateMethodReader {
                 "}\n" +
                 "}\n" +
                 "else {\n" +
-                "lastEventName = wireIn.readEvent(String.class);\n" +
+                "wireIn.readEventName(eventNameSB);\n" +
+                "lastEventName = EVENT_NAMES.get(eventNameSB);\n" +
                 "}\n" +
                 "ValueIn valueIn = wireIn.getValueIn();\n" +
                 "try {\n" +
                 "if (Jvm.isDebug())\n" +
-                "debugLoggingParselet.accept(lastEventName, valueIn);\n" +
-                "if (lastEventName == null)\n" +
+                "debugLoggingParselet.accept(lastEventName == null ? eventNameSB : lastEventName, valueIn);\n" +
+                "if (lastEventName == null) {\n" +
+                "if (eventNameSB.length() > 0)\n" +
+                "return false;\n" +
                 "throw new IllegalStateException(\"Failed to read method name or ID\");\n" +
+                "}\n" +
                 "switch (lastEventName) {\n" +
                 "case MethodReader.HISTORY:\n" +
                 "valueIn.marshallable(messageHistory);\n" +
@@ -7,6 +7,7 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.wire.utils.JavaSourceCodeFormatter;
 import net.openhft.chronicle.wire.utils.SourceCodeFormatter;
+import net.openhft.compiler.CachedCompiler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -86,6 +87,7 @@ public class GenerateMethodWriter {
     private final WireType wireType;
     private final String genericEvent;
     private final boolean useUpdateInterceptor;
+    private final CachedCompiler compiler;
     private final ConcurrentMap<Class<?>, String> methodWritersMap = new ConcurrentHashMap<>();
     final private AtomicInteger indent = new AtomicInteger();
 
@@ -97,7 +99,8 @@ public class GenerateMethodWriter {
                                  final String genericEvent,
                                  final boolean metaData,
                                  final boolean useMethodId,
-                                 final boolean useUpdateInterceptor) {
+                                 final boolean useUpdateInterceptor,
+                                 final CachedCompiler compiler) {
 
         this.packageName = packageName;
         this.interfaces = interfaces;
@@ -108,6 +111,7 @@ public class GenerateMethodWriter {
         this.metaData = metaData;
         this.useMethodId = useMethodId;
         this.useUpdateInterceptor = useUpdateInterceptor;
+        this.compiler = compiler;
     }
 
     /**
@@ -123,6 +127,23 @@ public class GenerateMethodWriter {
                                     boolean metaData,
                                     boolean useMethodId,
                                     final boolean useUpdateInterceptor) {
+        return newClass(fullClassName, interfaces, classLoader, wireType, genericEvent, metaData, useMethodId, useUpdateInterceptor, CACHED_COMPILER);
+    }
+
+    /**
+     * @param compiler the compiler to use, e.g. one which writes the class to a build directory
+     * @return a proxy class from an interface class or null if it can't be created
+     */
+    @Nullable
+    public static Class<?> newClass(String fullClassName,
+                                    Set<Class> interfaces,
+                                    ClassLoader classLoader,
+                                    final WireType wireType,
+                                    final String genericEvent,
+                                    boolean metaData,
+                                    boolean useMethodId,
+                                    final boolean useUpdateInterceptor,
+                                    final CachedCompiler compiler) {
         int lastDot = fullClassName.lastIndexOf('.');
         String packageName = "";
         String className = fullClassName;
@@ -138,7 +159,8 @@ public class GenerateMethodWriter {
                 classLoader,
                 wireType,
                 genericEvent,
-                metaData, useMethodId, useUpdateInterceptor)
+                metaData, useMethodId, useUpdateInterceptor,
+                compiler)
                 .createClass();
     }
 
@@ -333,7 +355,7 @@ public class GenerateMethodWriter {
             if (DUMP_CODE)
                 System.out.println(imports);
 
-            return CACHED_COMPILER.loadFromJava(classLoader, packageName + '.' + className, imports.toString());
+            return compiler.loadFromJava(classLoader, packageName + '.' + className, imports.toString());
 
         } catch (AssertionError e) {
             if (e.getCause() instanceof LinkageError) {
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.core.util.ObjectUtils;
+import net.openhft.compiler.CachedCompiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the MethodWriters and MethodReaders for the types marked with {@link Pregenerate}, writing the sources and
+ * classes into the build directories so they are packaged with the classes they are generated for.
+ * <p>
+ * The types are those listed by the chronicle-wire-annotation-processor in {@link #INDEX} under the classes directory,
+ * or given on the command line. This needs to run after compilation with the classes directory on the class path,
+ * e.g. in the <code>process-classes</code> phase.
+ * <pre>
+ * java net.openhft.chronicle.wire.GenerateProxiesMain target/classes target/generated-sources/wire [class names]
+ * </pre>
+ */
+public class GenerateProxiesMain {
+    public static final String INDEX = "META-INF/chronicle-wire/pregenerate";
+    // as for @Pregenerate
+    private static final WireType[] DEFAULT_WIRE_TYPES = {WireType.BINARY_LIGHT, WireType.TEXT};
+
+    private final CachedCompiler compiler;
+    private final List<Class<?>> generated = new ArrayList<>();
+
+    public GenerateProxiesMain(File classesDir, File sourceDir) {
+        this.compiler = new CachedCompiler(sourceDir, classesDir);
+    }
+
+    public static void main(String... args) throws IOException, ClassNotFoundException {
+        if (args.length < 2) {
+            System.err.println("Usage: java " + GenerateProxiesMain.class.getName() + " {classes-dir} {generated-sources-dir} [class-names...]");
+            System.exit(1);
+        }
+        File classesDir = new File(args[0]);
+        GenerateProxiesMain main = new GenerateProxiesMain(classesDir, new File(args[1]));
+        List<String> classNames = new ArrayList<>();
+        File index = new File(classesDir, INDEX);
+        if (index.exists())
+            classNames.addAll(Files.readAllLines(index.toPath(), StandardCharsets.UTF_8));
+        for (int i = 2; i < args.length; i++)
+            classNames.add(args[i]);
+
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        for (String className : classNames) {
+            if (!className.trim().isEmpty())
+                main.generateFor(Class.forName(className.trim(), false, classLoader));
+        }
+        main.generated().forEach(System.out::println);
+    }
+
+    /**
+     * Generate a MethodWriter for each wire type for an interface, or a MethodReader for a class.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void generateFor(Class<?> aClass) {
+        Pregenerate pregenerate = aClass.getAnnotation(Pregenerate.class);
+        if (aClass.isInterface()) {
+            WireType[] wireTypes = pregenerate == null ? DEFAULT_WIRE_TYPES : pregenerate.wireTypes();
+            for (WireType wireType : wireTypes) {
+                VanillaMethodWriterBuilder builder = new VanillaMethodWriterBuilder(aClass, wireType, () -> null);
+                builder.metaData(pregenerate != null && pregenerate.metaData());
+                add(builder.generateClass(compiler));
+            }
+        } else {
+            Object instance = ObjectUtils.newInstance(aClass);
+            add(new VanillaMethodReaderBuilder(null).generateClass(compiler, instance));
+        }
+    }
+
+    /**
+     * @return the names of the classes generated so far
+     */
+    public List<String> generated() {
+        List<String> names = new ArrayList<>();
+        for (Class<?> aClass : generated)
+            names.add(aClass.getName());
+        return names;
+    }
+
+    /**
+     * @return the classes generated so far, as loaded by this generator's compiler
+     */
+    public List<Class<?>> generatedClasses() {
+        return generated;
+    }
+
+    private void add(Class<?> generatedClass) {
+        if (generatedClass != null)
+            generated.add(generatedClass);
+    }
+}
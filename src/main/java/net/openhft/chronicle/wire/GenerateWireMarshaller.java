@@ -0,0 +1,295 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.wire.utils.JavaSourceCodeFormatter;
+import net.openhft.chronicle.wire.utils.SourceCodeFormatter;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Constructor;
+
+import static net.openhft.compiler.CompilerUtils.CACHED_COMPILER;
+
+/**
+ * Responsible for code generation and its runtime compilation of class specific {@link WireMarshaller}s.
+ * <p>
+ * The generated marshaller holds each {@link WireMarshaller.FieldAccess} in a field of its concrete type and calls them
+ * in straight line code, so every call site is monomorphic. Primitive fields are written, reset and compared inline
+ * using their Unsafe offsets.
+ * <p>
+ * This is opt-in with <code>-Dwire.generate.marshaller=true</code>
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class GenerateWireMarshaller {
+    private static final boolean DUMP_CODE = Jvm.getBoolean("dumpCode");
+    private static final String PACKAGE_NAME = WireMarshaller.class.getPackage().getName();
+
+    private final Class<?> tClass;
+    private final WireMarshaller.FieldAccess[] fields;
+    private final String className;
+    private final SourceCodeFormatter sourceCode = new JavaSourceCodeFormatter();
+
+    private GenerateWireMarshaller(Class<?> tClass, WireMarshaller.FieldAccess[] fields) {
+        this.tClass = tClass;
+        this.fields = fields;
+        this.className = identifierFor(tClass.getName()) + "WireMarshaller";
+    }
+
+    /**
+     * A Java identifier for a class name, which is different for every class name, as JNI mangles names.
+     * A '.' becomes '_', '_' becomes "_1", '$' becomes "_2" and any other character which can't be in an identifier
+     * becomes "_0" and four hex digits. As a package or class name can't start with a digit, a '_' followed by a
+     * digit is always an escape.
+     */
+    static String identifierFor(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (ch == '.')
+                sb.append('_');
+            else if (ch == '_')
+                sb.append("_1");
+            else if (ch == '$')
+                sb.append("_2");
+            else if (Character.isJavaIdentifierPart(ch))
+                sb.append(ch);
+            else
+                sb.append("_0").append(String.format("%04x", (int) ch));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return a generated marshaller for this class or <code>null</code> if it could not be generated.
+     */
+    static <T> WireMarshaller<T> newMarshaller(@NotNull Class<T> tClass, @NotNull WireMarshaller.FieldAccess[] fields, boolean isLeaf) {
+        try {
+            Class<?> marshallerClass = new GenerateWireMarshaller(tClass, fields).acquireClass();
+            Constructor<?> constructor = marshallerClass.getConstructor(Class.class, WireMarshaller.FieldAccess[].class, boolean.class);
+            return (WireMarshaller<T>) constructor.newInstance(tClass, fields, isLeaf);
+
+        } catch (Throwable t) {
+            Jvm.warn().on(GenerateWireMarshaller.class, "Unable to generate a WireMarshaller for " + tClass.getName() + ", using reflection", t);
+            return null;
+        }
+    }
+
+    private static boolean isInlined(WireMarshaller.FieldAccess field) {
+        return primitiveName(field) != null && field.commentAnnotation == null;
+    }
+
+    private static String primitiveName(WireMarshaller.FieldAccess field) {
+        // exact classes only, the conversion sub-classes need the FieldAccess
+        Class<?> faClass = field.getClass();
+        if (faClass == WireMarshaller.BooleanFieldAccess.class)
+            return "Boolean";
+        if (faClass == WireMarshaller.ByteFieldAccess.class)
+            return "Byte";
+        if (faClass == WireMarshaller.ShortFieldAccess.class)
+            return "Short";
+        if (faClass == WireMarshaller.IntegerFieldAccess.class)
+            return "Int";
+        if (faClass == WireMarshaller.LongFieldAccess.class)
+            return "Long";
+        if (faClass == WireMarshaller.FloatFieldAccess.class)
+            return "Float";
+        if (faClass == WireMarshaller.DoubleFieldAccess.class)
+            return "Double";
+        return null;
+    }
+
+    private static String writeMethod(WireMarshaller.FieldAccess field) {
+        switch (primitiveName(field)) {
+            case "Boolean":
+                return "bool";
+            case "Byte":
+                return "int8";
+            case "Short":
+                return "int16";
+            case "Int":
+                return "int32";
+            case "Long":
+                return "int64";
+            case "Float":
+                return "float32";
+            case "Double":
+                return "float64";
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    private static String typeName(WireMarshaller.FieldAccess field) {
+        Class<?> faClass = field.getClass();
+        return faClass.getEnclosingClass() == WireMarshaller.class
+                ? "WireMarshaller." + faClass.getSimpleName()
+                : "WireMarshaller.FieldAccess";
+    }
+
+    private static String get(WireMarshaller.FieldAccess field, String obj) {
+        return "unsafeGet" + primitiveName(field) + "(" + obj + ", " + offset(field) + ")";
+    }
+
+    private static String offset(WireMarshaller.FieldAccess field) {
+        return field.offset + "L";
+    }
+
+    private Class<?> acquireClass() throws ClassNotFoundException {
+        ClassLoader classLoader = WireMarshaller.class.getClassLoader();
+        String fullName = PACKAGE_NAME + '.' + className;
+        try {
+            return classLoader.loadClass(fullName);
+
+        } catch (ClassNotFoundException cnfe) {
+            // ignored
+        }
+        try {
+            generateSourceCode();
+            if (DUMP_CODE)
+                System.out.println(sourceCode);
+
+            return CACHED_COMPILER.loadFromJava(classLoader, fullName, sourceCode.toString());
+
+        } catch (AssertionError e) {
+            if (e.getCause() instanceof LinkageError)
+                return Class.forName(fullName, true, classLoader);
+            throw e;
+        }
+    }
+
+    private void generateSourceCode() {
+        sourceCode.append("" +
+                "package " + PACKAGE_NAME + ";\n" +
+                "\n" +
+                "import net.openhft.chronicle.bytes.BytesComment;\n" +
+                "import net.openhft.chronicle.core.Maths;\n" +
+                "\n" +
+                "import static net.openhft.chronicle.core.UnsafeMemory.*;\n" +
+                "\n" +
+                "// generated for " + tClass.getName() + "\n" +
+                "public final class " + className + " extends WireMarshaller {\n");
+        generateFields();
+        generateConstructor();
+        generateWriteMarshallable();
+        generateReadMarshallable();
+        generateReset();
+        generateIsEqual();
+        sourceCode.append("}\n");
+    }
+
+    private void generateFields() {
+        for (int i = 0; i < fields.length; i++) {
+            sourceCode.append("private final ").append(typeName(fields[i])).append(" f").append(i).append(";\n");
+        }
+        sourceCode.append("\n");
+    }
+
+    private void generateConstructor() {
+        sourceCode.append("public " + className + "(Class tClass, WireMarshaller.FieldAccess[] fields, boolean isLeaf) {\n" +
+                "super(tClass, fields, isLeaf);\n");
+        for (int i = 0; i < fields.length; i++) {
+            sourceCode.append("f").append(i).append(" = (").append(typeName(fields[i])).append(") fields[").append(i).append("];\n");
+        }
+        sourceCode.append("}\n\n");
+    }
+
+    private void generateWriteMarshallable() {
+        StringBuilder body = new StringBuilder();
+        boolean throwsIAE = false;
+        for (int i = 0; i < fields.length; i++) {
+            WireMarshaller.FieldAccess field = fields[i];
+            if (isInlined(field)) {
+                body.append("out.write(\"").append(field.field.getName()).append("\").")
+                        .append(writeMethod(field)).append("(").append(get(field, "t")).append(");\n");
+            } else {
+                body.append("f").append(i).append(".write(t, out);\n");
+                throwsIAE = true;
+            }
+        }
+        sourceCode.append("@Override\n" +
+                "public void writeMarshallable(Object t, WireOut out) {\n" +
+                "BytesComment bytes = out.bytesComment();\n" +
+                "bytes.indent(+1);\n");
+        appendWithCatch(body, throwsIAE);
+        sourceCode.append("bytes.indent(-1);\n" +
+                "}\n\n");
+    }
+
+    private void generateReadMarshallable() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            body.append("f").append(i).append(".readValue(t, defaults, in.read(f").append(i).append(".key), overwrite);\n");
+        }
+        sourceCode.append("@Override\n" +
+                "public void readMarshallableDTOOrder(Object t, WireIn in, Object defaults, boolean overwrite) {\n");
+        appendWithCatch(body, fields.length > 0);
+        sourceCode.append("}\n\n");
+    }
+
+    private void generateReset() {
+        StringBuilder body = new StringBuilder();
+        boolean throwsIAE = false;
+        for (int i = 0; i < fields.length; i++) {
+            WireMarshaller.FieldAccess field = fields[i];
+            if (primitiveName(field) != null) {
+                body.append("unsafePut").append(primitiveName(field)).append("(o, ").append(offset(field)).append(", ")
+                        .append(get(field, "d")).append(");\n");
+            } else {
+                body.append("f").append(i).append(".copy(d, o);\n");
+                throwsIAE = true;
+            }
+        }
+        sourceCode.append("@Override\n" +
+                "public void reset(Object o) {\n" +
+                "Object d = defaultValue();\n");
+        appendWithCatch(body, throwsIAE);
+        sourceCode.append("}\n\n");
+    }
+
+    private void generateIsEqual() {
+        sourceCode.append("@Override\n" +
+                "public boolean isEqual(Object o1, Object o2) {\n" +
+                "return true");
+        for (int i = 0; i < fields.length; i++) {
+            WireMarshaller.FieldAccess field = fields[i];
+            String primitive = primitiveName(field);
+            sourceCode.append("\n&& ");
+            if (primitive == null)
+                sourceCode.append("f").append(i).append(".isEqual(o1, o2)");
+            else if (primitive.equals("Float") || primitive.equals("Double"))
+                sourceCode.append("Maths.same(").append(get(field, "o1")).append(", ").append(get(field, "o2")).append(")");
+            else
+                sourceCode.append(get(field, "o1")).append(" == ").append(get(field, "o2"));
+        }
+        sourceCode.append(";\n" +
+                "}\n");
+    }
+
+    private void appendWithCatch(CharSequence body, boolean throwsIAE) {
+        if (throwsIAE) {
+            sourceCode.append("try {\n")
+                    .append(body)
+                    .append("} catch (IllegalAccessException e) {\n" +
+                            "throw new AssertionError(e);\n" +
+                            "}\n");
+        } else {
+            sourceCode.append(body);
+        }
+    }
+}
@@ -0,0 +1,539 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.ClassLocal;
+import net.openhft.chronicle.core.pool.StringBuilderPool;
+import net.openhft.chronicle.core.util.ObjectUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.BufferUnderflowException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes a DTO as a JSON object without going through {@link JSONWire}.
+ * <p>
+ * For a {@link Marshallable} which uses the default readMarshallable and writeMarshallable, and only has primitive,
+ * String or enum fields, the codec is generated from the {@link WireMarshaller} fields by {@link GenerateJsonCodec}.
+ * It writes the fields in order, and reads them by matching each expected key in turn. Numbers are parsed from the
+ * bytes directly and Strings are escaped with a lookup table.
+ * <p>
+ * Any input the generated code doesn't expect, e.g. fields in another order, missing or extra fields, is read again
+ * from the start with a {@link JSONWire}. Classes which can't be generated for always use a {@link JSONWire}.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public abstract class JsonCodec<T> {
+    private static final ClassLocal<JsonCodec> CODEC_CL = ClassLocal.withInitial(JsonCodec::create);
+    private static final StringBuilderPool SBP = new StringBuilderPool();
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    // 0 = as is, 'u' = \\u00xx, otherwise the character after the backslash
+    private static final byte[] ESCAPES = new byte[128];
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.ISO_8859_1);
+
+    static {
+        for (int i = 0; i < 0x20; i++)
+            ESCAPES[i] = 'u';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+    }
+
+    private final Class<T> tClass;
+
+    protected JsonCodec(@NotNull Class<T> tClass) {
+        this.tClass = tClass;
+    }
+
+    /**
+     * @return the codec for this class, generating it the first time if possible.
+     */
+    @NotNull
+    public static <T> JsonCodec<T> of(@NotNull Class<T> tClass) {
+        return CODEC_CL.get(tClass);
+    }
+
+    private static JsonCodec create(Class tClass) {
+        JsonCodec codec = GenerateJsonCodec.isSupported(tClass) ? GenerateJsonCodec.newCodec(tClass) : null;
+        return codec == null ? new ViaJSONWire(tClass) : codec;
+    }
+
+    @NotNull
+    public Class<T> tClass() {
+        return tClass;
+    }
+
+    /**
+     * Write a DTO as a JSON object.
+     */
+    public abstract void write(@NotNull T t, @NotNull Bytes<?> bytes);
+
+    /**
+     * Read a JSON object into a DTO.
+     *
+     * @param using to read into or <code>null</code> to create a new instance.
+     * @return the DTO read
+     */
+    @NotNull
+    public T read(@NotNull Bytes<?> bytes, @Nullable T using) {
+        T t = using == null ? ObjectUtils.newInstance(tClass) : using;
+        long start = bytes.readPosition();
+        try {
+            if (readFields(t, bytes))
+                return t;
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            // not as expected, try again below.
+        }
+        bytes.readPosition(start);
+        new JSONWire(bytes).getValueIn().object(t, tClass);
+        return t;
+    }
+
+    /**
+     * @return true if all the fields were read, or false to read it again with a JSONWire.
+     */
+    protected abstract boolean readFields(@NotNull T t, @NotNull Bytes<?> bytes);
+
+    /**
+     * @param key the bytes of <code>{"name":</code> or <code>,"name":</code>
+     * @return true if these are next ignoring whitespace between tokens.
+     */
+    static boolean expectKey(Bytes<?> bytes, byte[] key) {
+        skipWhitespace(bytes);
+        if (bytes.readRemaining() < key.length)
+            return false;
+        long pos = bytes.readPosition();
+        if (bytes.readByte(pos) != key[0])
+            return false;
+        pos = skipWhitespace(bytes, pos + 1);
+        // the quoted name
+        int last = key.length - 1;
+        if (bytes.readLimit() - pos < last)
+            return false;
+        for (int i = 1; i < last; i++)
+            if (bytes.readByte(pos + i - 1) != key[i])
+                return false;
+        pos = skipWhitespace(bytes, pos + last - 1);
+        if (pos >= bytes.readLimit() || bytes.readByte(pos) != ':')
+            return false;
+        bytes.readPosition(pos + 1);
+        skipWhitespace(bytes);
+        return true;
+    }
+
+    static boolean expectEnd(Bytes<?> bytes) {
+        skipWhitespace(bytes);
+        if (bytes.readRemaining() < 1 || bytes.readByte(bytes.readPosition()) != '}')
+            return false;
+        bytes.readSkip(1);
+        return true;
+    }
+
+    static byte[] key(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void skipWhitespace(Bytes<?> bytes) {
+        long pos = bytes.readPosition();
+        long pos2 = skipWhitespace(bytes, pos);
+        if (pos2 > pos)
+            bytes.readPosition(pos2);
+    }
+
+    private static long skipWhitespace(Bytes<?> bytes, long pos) {
+        long limit = bytes.readLimit();
+        while (pos < limit) {
+            int b = bytes.readUnsignedByte(pos);
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t')
+                break;
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean readNull(Bytes<?> bytes) {
+        if (bytes.readRemaining() >= 4 && bytes.readUnsignedByte(bytes.readPosition()) == 'n') {
+            expectWord(bytes, "null");
+            return true;
+        }
+        return false;
+    }
+
+    private static void expectWord(Bytes<?> bytes, String word) {
+        long pos = bytes.readPosition();
+        if (bytes.readLimit() - pos < word.length())
+            throw new IllegalArgumentException("Expected " + word);
+        for (int i = 0; i < word.length(); i++)
+            if (bytes.readUnsignedByte(pos + i) != word.charAt(i))
+                throw new IllegalArgumentException("Expected " + word);
+        bytes.readSkip(word.length());
+    }
+
+    static boolean readBoolean(Bytes<?> bytes) {
+        if (bytes.readRemaining() > 0 && bytes.readUnsignedByte(bytes.readPosition()) == 't') {
+            expectWord(bytes, "true");
+            return true;
+        }
+        expectWord(bytes, "false");
+        return false;
+    }
+
+    static byte readByte(Bytes<?> bytes) {
+        long l = readLong(bytes);
+        if (l != (byte) l)
+            throw new IllegalArgumentException("Out of range " + l);
+        return (byte) l;
+    }
+
+    static short readShort(Bytes<?> bytes) {
+        long l = readLong(bytes);
+        if (l != (short) l)
+            throw new IllegalArgumentException("Out of range " + l);
+        return (short) l;
+    }
+
+    static int readInt(Bytes<?> bytes) {
+        long l = readLong(bytes);
+        if (l != (int) l)
+            throw new IllegalArgumentException("Out of range " + l);
+        return (int) l;
+    }
+
+    static long readLong(Bytes<?> bytes) {
+        long start = bytes.readPosition();
+        long limit = bytes.readLimit();
+        long pos = start;
+        boolean negative = pos < limit && bytes.readUnsignedByte(pos) == '-';
+        if (negative)
+            pos++;
+        long value = 0;
+        int digits = 0;
+        for (; pos < limit; pos++) {
+            int b = bytes.readUnsignedByte(pos);
+            if (b < '0' || b > '9') {
+                if (b == '.' || b == 'e' || b == 'E')
+                    throw new IllegalArgumentException("Not an integer");
+                break;
+            }
+            value = value * 10 + (b - '0');
+            digits++;
+        }
+        if (digits == 0)
+            throw new IllegalArgumentException("Expected a number");
+        bytes.readPosition(pos);
+        if (digits > 18)
+            // may have overflowed, NumberFormatException is an IllegalArgumentException
+            return Long.parseLong(text(bytes, start, pos));
+        return negative ? -value : value;
+    }
+
+    static float readFloat(Bytes<?> bytes) {
+        // the shortest decimal of a float rounds to the same float via a double
+        return (float) readDouble(bytes);
+    }
+
+    static double readDouble(Bytes<?> bytes) {
+        if (readNull(bytes))
+            return Double.NaN;
+        long start = bytes.readPosition();
+        long limit = bytes.readLimit();
+        long pos = start;
+        boolean negative = pos < limit && bytes.readUnsignedByte(pos) == '-';
+        if (negative)
+            pos++;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean exact = true;
+        boolean point = false;
+        for (; pos < limit; pos++) {
+            int b = bytes.readUnsignedByte(pos);
+            if (b == '.' && !point) {
+                point = true;
+                continue;
+            }
+            if (b < '0' || b > '9')
+                break;
+            if (mantissa < 100_000_000_000_000_000L) {
+                mantissa = mantissa * 10 + (b - '0');
+                if (point)
+                    scale--;
+            } else {
+                exact = false;
+            }
+            digits++;
+        }
+        if (digits == 0)
+            throw new IllegalArgumentException("Expected a number");
+        if (pos < limit && (bytes.readUnsignedByte(pos) | 0x20) == 'e') {
+            pos++;
+            boolean negativeExp = false;
+            if (pos < limit) {
+                int b = bytes.readUnsignedByte(pos);
+                negativeExp = b == '-';
+                if (negativeExp || b == '+')
+                    pos++;
+            }
+            int exp = 0;
+            int expDigits = 0;
+            for (; pos < limit; pos++) {
+                int b = bytes.readUnsignedByte(pos);
+                if (b < '0' || b > '9')
+                    break;
+                if (exp < 10_000)
+                    exp = exp * 10 + (b - '0');
+                expDigits++;
+            }
+            if (expDigits == 0)
+                throw new IllegalArgumentException("Expected an exponent");
+            scale += negativeExp ? -exp : exp;
+        }
+        bytes.readPosition(pos);
+        // both the mantissa and the power of ten are exact doubles so there is only one rounding.
+        if (exact && mantissa < 1L << 53 && scale >= -22 && scale <= 22) {
+            double d = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+            return negative ? -d : d;
+        }
+        return Double.parseDouble(text(bytes, start, pos));
+    }
+
+    private static String text(Bytes<?> bytes, long start, long end) {
+        StringBuilder sb = SBP.acquireStringBuilder();
+        for (long i = start; i < end; i++)
+            sb.append((char) bytes.readUnsignedByte(i));
+        return sb.toString();
+    }
+
+    @Nullable
+    static String readString(Bytes<?> bytes) {
+        if (readNull(bytes))
+            return null;
+        StringBuilder sb = SBP.acquireStringBuilder();
+        readText(bytes, sb);
+        return WireInternal.INTERNER.intern(sb);
+    }
+
+    @Nullable
+    static <E extends Enum<E>> E readEnum(Bytes<?> bytes, Class<E> eClass) {
+        if (readNull(bytes))
+            return null;
+        StringBuilder sb = SBP.acquireStringBuilder();
+        readText(bytes, sb);
+        return WireInternal.internEnum(eClass, sb);
+    }
+
+    private static void readText(Bytes<?> bytes, StringBuilder sb) {
+        long limit = bytes.readLimit();
+        long pos = bytes.readPosition();
+        if (pos >= limit || bytes.readUnsignedByte(pos) != '"')
+            throw new IllegalArgumentException("Expected a string");
+        pos++;
+        while (true) {
+            long end = StopByteScanner.QUOTES.indexOf(bytes, pos, limit);
+            if (end < 0)
+                throw new IllegalArgumentException("Unterminated string");
+            for (; pos < end; pos++)
+                sb.append((char) bytes.readUnsignedByte(pos));
+            int b = bytes.readUnsignedByte(pos);
+            if (b == '"') {
+                bytes.readPosition(pos + 1);
+                return;
+            }
+            if (b == '\\')
+                pos = readEscape(bytes, pos + 1, limit, sb);
+            else
+                pos = readUtf8(bytes, pos, b, limit, sb);
+        }
+    }
+
+    private static long readEscape(Bytes<?> bytes, long pos, long limit, StringBuilder sb) {
+        if (pos >= limit)
+            throw new IllegalArgumentException("Unterminated string");
+        int b = bytes.readUnsignedByte(pos);
+        switch (b) {
+            case 'b':
+                sb.append('\b');
+                break;
+            case 'f':
+                sb.append('\f');
+                break;
+            case 'n':
+                sb.append('\n');
+                break;
+            case 'r':
+                sb.append('\r');
+                break;
+            case 't':
+                sb.append('\t');
+                break;
+            case 'u':
+                if (limit - pos < 5)
+                    throw new IllegalArgumentException("Unterminated string");
+                int ch = 0;
+                for (int i = 1; i <= 4; i++) {
+                    int digit = Character.digit(bytes.readUnsignedByte(pos + i), 16);
+                    if (digit < 0)
+                        throw new IllegalArgumentException("Invalid \\u escape");
+                    ch = ch * 16 + digit;
+                }
+                sb.append((char) ch);
+                return pos + 5;
+            default:
+                // \" \\ \/ and anything else as is
+                sb.append((char) b);
+                break;
+        }
+        return pos + 1;
+    }
+
+    private static long readUtf8(Bytes<?> bytes, long pos, int b, long limit, StringBuilder sb) {
+        int length;
+        int codePoint;
+        if ((b & 0xE0) == 0xC0) {
+            length = 2;
+            codePoint = b & 0x1F;
+        } else if ((b & 0xF0) == 0xE0) {
+            length = 3;
+            codePoint = b & 0x0F;
+        } else if ((b & 0xF8) == 0xF0) {
+            length = 4;
+            codePoint = b & 0x07;
+        } else {
+            throw new IllegalArgumentException("Invalid UTF-8");
+        }
+        if (limit - pos < length)
+            throw new IllegalArgumentException("Unterminated string");
+        for (int i = 1; i < length; i++) {
+            int b2 = bytes.readUnsignedByte(pos + i);
+            if ((b2 & 0xC0) != 0x80)
+                throw new IllegalArgumentException("Invalid UTF-8");
+            codePoint = codePoint << 6 | b2 & 0x3F;
+        }
+        sb.appendCodePoint(codePoint);
+        return pos + length;
+    }
+
+    static void writeBoolean(Bytes<?> bytes, boolean flag) {
+        bytes.append(flag ? "true" : "false");
+    }
+
+    static void writeLong(Bytes<?> bytes, long l) {
+        bytes.append(l);
+    }
+
+    static void writeFloat(Bytes<?> bytes, float f) {
+        if (Float.isFinite(f) && f != (long) f)
+            bytes.append(Float.toString(f));
+        else
+            writeDouble(bytes, f);
+    }
+
+    static void writeDouble(Bytes<?> bytes, double d) {
+        double abs = Math.abs(d);
+        if (!Double.isFinite(d))
+            bytes.append("null");
+        else if (abs == 0 || abs >= 1e-3 && abs < 1e15)
+            // as for TextWire, outside this range Double.toString is used.
+            bytes.append(d);
+        else
+            bytes.append(Double.toString(d));
+    }
+
+    static void writeString(Bytes<?> bytes, @Nullable CharSequence cs) {
+        if (cs == null) {
+            bytes.append("null");
+            return;
+        }
+        bytes.writeUnsignedByte('"');
+        for (int i = 0, length = cs.length(); i < length; i++) {
+            char ch = cs.charAt(i);
+            if (ch < 0x80) {
+                int escape = ESCAPES[ch];
+                if (escape == 0) {
+                    bytes.writeUnsignedByte(ch);
+                } else if (escape == 'u') {
+                    writeUnicodeEscape(bytes, ch);
+                } else {
+                    bytes.writeUnsignedByte('\\');
+                    bytes.writeUnsignedByte(escape);
+                }
+            } else if (Character.isHighSurrogate(ch) && i + 1 < length && Character.isLowSurrogate(cs.charAt(i + 1))) {
+                writeUtf8(bytes, Character.toCodePoint(ch, cs.charAt(++i)));
+            } else if (Character.isSurrogate(ch)) {
+                // unpaired surrogates can't be UTF-8 encoded
+                writeUnicodeEscape(bytes, ch);
+            } else {
+                writeUtf8(bytes, ch);
+            }
+        }
+        bytes.writeUnsignedByte('"');
+    }
+
+    static void writeEnum(Bytes<?> bytes, @Nullable Enum e) {
+        writeString(bytes, e == null ? null : e.name());
+    }
+
+    private static void writeUnicodeEscape(Bytes<?> bytes, char ch) {
+        bytes.writeUnsignedByte('\\');
+        bytes.writeUnsignedByte('u');
+        bytes.writeUnsignedByte(HEX[ch >> 12]);
+        bytes.writeUnsignedByte(HEX[(ch >> 8) & 0xF]);
+        bytes.writeUnsignedByte(HEX[(ch >> 4) & 0xF]);
+        bytes.writeUnsignedByte(HEX[ch & 0xF]);
+    }
+
+    private static void writeUtf8(Bytes<?> bytes, int codePoint) {
+        if (codePoint < 0x800) {
+            bytes.writeUnsignedByte(0xC0 | codePoint >> 6);
+        } else if (codePoint < 0x10000) {
+            bytes.writeUnsignedByte(0xE0 | codePoint >> 12);
+            bytes.writeUnsignedByte(0x80 | (codePoint >> 6) & 0x3F);
+        } else {
+            bytes.writeUnsignedByte(0xF0 | codePoint >> 18);
+            bytes.writeUnsignedByte(0x80 | (codePoint >> 12) & 0x3F);
+            bytes.writeUnsignedByte(0x80 | (codePoint >> 6) & 0x3F);
+        }
+        bytes.writeUnsignedByte(0x80 | codePoint & 0x3F);
+    }
+
+    /**
+     * For classes without a generated codec.
+     */
+    static final class ViaJSONWire<T> extends JsonCodec<T> {
+        ViaJSONWire(@NotNull Class<T> tClass) {
+            super(tClass);
+        }
+
+        @Override
+        public void write(@NotNull T t, @NotNull Bytes<?> bytes) {
+            new JSONWire(bytes).getValueOut().object(tClass(), t);
+        }
+
+        @Override
+        protected boolean readFields(@NotNull T t, @NotNull Bytes<?> bytes) {
+            return false;
+        }
+    }
+}
@@ -17,6 +17,8 @@
  */
 package net.openhft.chronicle.wire;
 
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.bytes.ref.BinaryLongReference;
 import net.openhft.chronicle.bytes.ref.LongReference;
 import net.openhft.chronicle.core.io.AbstractCloseable;
 import net.openhft.chronicle.core.io.IORuntimeException;
@@ -37,6 +39,10 @@ import static net.openhft.chronicle.core.io.Closeable.closeQuietly;
 /**
  * This <code>BitSet</code> is intended to be shared between processes. To minimize locking constraints, it is implemented as a lock-free solution
  * without support for resizing.
+ * <p>
+ * Only the words which could be changed concurrently are updated with a CAS, whole words in a range are stored
+ * directly. When the words are bound to one <code>BytesStore</code> at a fixed stride, as written by a binary wire,
+ * scans read that memory directly.
  */
 public class LongValueBitSet extends AbstractCloseable implements Marshallable, ChronicleBitSet {
 
@@ -62,6 +68,13 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
      */
     private transient boolean sizeIsSticky = true;
 
+    /**
+     * Where the words are laid out at a fixed stride in one store, otherwise <code>null</code>
+     */
+    private transient BytesStore<?, ?> wordStore;
+    private transient long wordOffset;
+    private transient long wordStride;
+
     public LongValueBitSet(final int maxNumberOfBits) {
         int size = (maxNumberOfBits / 64) + 1;
         words = new LongValue[size];
@@ -115,6 +128,7 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
 
     @Override
     protected void performClose() {
+        wordStore = null;
         closeQuietly(words);
     }
 
@@ -122,6 +136,35 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
         return words.length;
     }
 
+    private long word(int index) {
+        BytesStore<?, ?> store = wordStore;
+        return store == null
+                ? words[index].getVolatileValue()
+                : store.readVolatileLong(wordOffset + index * wordStride);
+    }
+
+    private void bindWordStore() {
+        wordStore = null;
+        if (words.length == 0 || !(words[0] instanceof BinaryLongReference))
+            return;
+        BinaryLongReference first = (BinaryLongReference) words[0];
+        BytesStore<?, ?> store = first.bytesStore();
+        long offset = first.offset();
+        long stride = 8;
+        if (words.length > 1 && words[1] instanceof BinaryLongReference)
+            stride = ((BinaryLongReference) words[1]).offset() - offset;
+        for (int i = 1; i < words.length; i++) {
+            if (!(words[i] instanceof BinaryLongReference))
+                return;
+            BinaryLongReference ref = (BinaryLongReference) words[i];
+            if (ref.bytesStore() != store || ref.offset() != offset + i * stride)
+                return;
+        }
+        wordOffset = offset;
+        wordStride = stride;
+        wordStore = store;
+    }
+
     public void set(LongValue word, long param, LongFunction function) {
         throwExceptionIfClosed();
 
@@ -216,11 +259,22 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
     }
 
     private void caret(LongValue word, long param) {
-        set(word, param, (x, y) -> x ^ y);
+        if (param == 0)
+            return;
+        for (; ; ) {
+            long oldValue = word.getVolatileValue();
+            if (word.compareAndSwapValue(oldValue, oldValue ^ param))
+                return;
+        }
     }
 
     private void and(LongValue word, final long param) {
-        set(word, param, (x, y) -> x & y);
+        for (; ; ) {
+            long oldValue = word.getVolatileValue();
+            long newValue = oldValue & param;
+            if (newValue == oldValue || word.compareAndSwapValue(oldValue, newValue))
+                return;
+        }
     }
 
     /**
@@ -283,7 +337,12 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
     }
 
     private void pipe(LongValue word, long param) {
-        set(word, param, (x, y) -> x | y);
+        for (; ; ) {
+            long oldValue = word.getVolatileValue();
+            long newValue = oldValue | param;
+            if (newValue == oldValue || word.compareAndSwapValue(oldValue, newValue))
+                return;
+        }
     }
 
     /**
@@ -337,7 +396,7 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
 
             // Handle intermediate words, if any
             for (int i = startWordIndex + 1; i < endWordIndex; i++)
-                set(words[i], WORD_MASK, (x, y) -> x);
+                words[i].setOrderedValue(WORD_MASK);
 
             // Handle last word (restores invariants)
             pipe(words[endWordIndex], lastWordMask);
@@ -490,14 +549,14 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
         if (u >= getWordsInUse())
             return -1;
 
-        long word = words[u].getVolatileValue() & (WORD_MASK << fromIndex);
+        long word = word(u) & (WORD_MASK << fromIndex);
 
         while (true) {
             if (word != 0)
                 return (u * BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
             if (++u == getWordsInUse())
                 return -1;
-            word = words[u].getVolatileValue();
+            word = word(u);
         }
     }
 
@@ -532,7 +591,7 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
         if (u >= getWordsInUse())
             return -1;
 
-        long word = words[u].getVolatileValue() & (WORD_MASK << fromIndex);
+        long word = word(u) & (WORD_MASK << fromIndex);
 
         while (true) {
             if (word != 0)
@@ -541,7 +600,7 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
                 return -1;
             if (u * BITS_PER_WORD > toIndex)
                 return -1;
-            word = words[u].getVolatileValue();
+            word = word(u);
         }
     }
 
@@ -565,14 +624,14 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
         if (u >= getWordsInUse())
             return fromIndex;
 
-        long word = ~words[u].getVolatileValue() & (WORD_MASK << fromIndex);
+        long word = ~word(u) & (WORD_MASK << fromIndex);
 
         while (true) {
             if (word != 0)
                 return (u * BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
             if (++u == getWordsInUse())
                 return getWordsInUse() * BITS_PER_WORD;
-            word = ~words[u].getValue();
+            word = ~word(u);
         }
     }
 
@@ -688,7 +747,7 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
         throwExceptionIfClosed();
 
         for (int i = Math.min(getWordsInUse(), set.getWordsInUse()) - 1; i >= 0; i--)
-            if ((words[i].getVolatileValue() & set.words[i].getVolatileValue()) != 0)
+            if ((word(i) & set.word(i)) != 0)
                 return true;
         return false;
     }
@@ -703,8 +762,15 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
         throwExceptionIfClosed();
 
         int sum = 0;
-        for (int i = 0; i < getWordsInUse(); i++)
-            sum += Long.bitCount(words[i].getVolatileValue());
+        BytesStore<?, ?> store = wordStore;
+        if (store == null) {
+            for (int i = 0; i < getWordsInUse(); i++)
+                sum += Long.bitCount(words[i].getVolatileValue());
+        } else {
+            long end = wordOffset + getWordsInUse() * wordStride;
+            for (long offset = wordOffset; offset < end; offset += wordStride)
+                sum += Long.bitCount(store.readVolatileLong(offset));
+        }
         return sum;
     }
 
@@ -728,7 +794,7 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
 
         // Perform logical AND on words in common
         for (int i = 0; i < getWordsInUse(); i++)
-            and(words[i], set.words[i].getVolatileValue());
+            and(words[i], set.word(i));
     }
 
     /**
@@ -747,7 +813,7 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
 
         // Perform logical OR on words in common
         for (int i = 0; i < wordsInCommon; i++)
-            pipe(words[i], set.words[i].getVolatileValue());
+            pipe(words[i], set.word(i));
 
         // Copy any remaining words
         if (wordsInCommon < set.getWordsInUse())
@@ -774,7 +840,7 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
         int wordsInCommon = Math.min(getWordsInUse(), set.getWordsInUse());
 
         for (int i = 0; i < wordsInCommon; i++)
-            caret(words[i], set.words[i].getVolatileValue());
+            caret(words[i], set.word(i));
 
         // Copy any remaining words
         if (wordsInCommon < set.getWordsInUse())
@@ -794,7 +860,7 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
 
         // Perform logical (a & !b) on words in common
         for (int i = Math.min(getWordsInUse(), set.getWordsInUse()) - 1; i >= 0; i--)
-            and(words[i], ~set.words[i].getVolatileValue());
+            and(words[i], ~set.word(i));
     }
 
     /**
@@ -998,6 +1064,7 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
     public void readMarshallable(@NotNull final WireIn wire) throws IORuntimeException {
         throwExceptionIfClosed();
 
+        wordStore = null;
         closeQuietly(words);
 
         try (DocumentContext dc = wire.readingDocument()) {
@@ -1009,6 +1076,7 @@ public class LongValueBitSet extends AbstractCloseable implements Marshallable,
                 words[i] = wire.getValueIn().int64ForBinding(null);
             }
         }
+        bindWordStore();
         disableThreadSafetyCheck(true);
     }
 
@@ -45,8 +45,11 @@ public interface Marshallable extends WriteMarshallable, ReadMarshallable, Reset
                 ($this == o || Wires.isEquals($this, o));
     }
 
+    /**
+     * A hash of the fields of this object, read in place, consistent with {@link #$equals(WriteMarshallable, Object)}
+     */
     static int $hashCode(WriteMarshallable $this) {
-        return HashWire.hash32($this);
+        return WIRE_MARSHALLER_CL.get($this.getClass()).hashCode($this);
     }
 
     static String $toString(WriteMarshallable $this) {
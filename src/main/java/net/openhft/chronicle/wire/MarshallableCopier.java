@@ -0,0 +1,341 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesMarshallable;
+import net.openhft.chronicle.core.ClassLocal;
+import net.openhft.chronicle.core.util.ObjectUtils;
+import net.openhft.chronicle.core.util.ReadResolvable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.openhft.chronicle.core.UnsafeMemory.*;
+import static net.openhft.chronicle.wire.WireMarshaller.WIRE_MARSHALLER_CL;
+
+/**
+ * Copies Marshallables field by field using the {@link WireMarshaller} fields, rather than writing them to a wire and
+ * reading them back.
+ * <p>
+ * Primitives are copied with Unsafe and immutable values are shared. A StringBuilder, Bytes, array, collection or
+ * nested Marshallable is copied into the value already in the target where there is one, otherwise a new one is
+ * created. Values of any other type are copied through a wire as before.
+ * <p>
+ * Only classes which use the default readMarshallable and writeMarshallable are copied this way, as only then is a copy
+ * of the fields the same as a round trip through a wire. An {@link AbstractMarshallableCfg} doesn't write the fields
+ * which have their default value, nor reset the fields not read, so those fields are not copied.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class MarshallableCopier {
+    private static final ClassLocal<Boolean> DIRECT = ClassLocal.withInitial(MarshallableCopier::isDirect);
+    private static final ClassLocal<Boolean> IMMUTABLE = ClassLocal.withInitial(MarshallableCopier::isImmutable);
+    private static final ClassLocal<Map<Class, Projection>> PROJECTIONS = ClassLocal.withInitial(c -> new ConcurrentHashMap<>());
+
+    private MarshallableCopier() {
+    }
+
+    private static boolean isDirect(Class<?> tClass) {
+        if (!Marshallable.class.isAssignableFrom(tClass)
+                || tClass.isInterface()
+                || Modifier.isAbstract(tClass.getModifiers())
+                || DynamicEnum.class.isAssignableFrom(tClass)
+                || ReadResolvable.class.isAssignableFrom(tClass)
+                || Throwable.class.isAssignableFrom(tClass))
+            return false;
+        try {
+            if (!isDefault(tClass.getMethod("writeMarshallable", WireOut.class).getDeclaringClass())
+                    || !isDefault(tClass.getMethod("readMarshallable", WireIn.class).getDeclaringClass()))
+                return false;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+        // the defaults are needed to know which fields it writes.
+        return !isCfg(tClass) || WIRE_MARSHALLER_CL.get(tClass).defaultValue() != null;
+    }
+
+    private static boolean isCfg(Class<?> tClass) {
+        return AbstractMarshallableCfg.class.isAssignableFrom(tClass);
+    }
+
+    private static boolean isDefault(Class<?> declaringClass) {
+        return declaringClass == Marshallable.class || declaringClass == AbstractMarshallableCfg.class;
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return type == String.class
+                || type.isPrimitive()
+                || type == Boolean.class || type == Byte.class || type == Short.class || type == Character.class
+                || type == Integer.class || type == Long.class || type == Float.class || type == Double.class
+                || Enum.class.isAssignableFrom(type)
+                || DynamicEnum.class.isAssignableFrom(type)
+                || type == Class.class
+                || type == UUID.class || type == BigInteger.class || type == BigDecimal.class
+                || type.getName().startsWith("java.time.");
+    }
+
+    /**
+     * @return whether this object can be copied field by field.
+     */
+    static boolean canCopy(@NotNull Object o) {
+        return DIRECT.get(o.getClass())
+                && (!(o instanceof BytesMarshallable) || ((Marshallable) o).usesSelfDescribingMessage());
+    }
+
+    /**
+     * Copy all the fields of one object to another of the same class, which {@link #canCopy(Object)}
+     */
+    static void copyFields(@NotNull Object from, @NotNull Object to) {
+        WireMarshaller<?> marshaller = WIRE_MARSHALLER_CL.get(from.getClass());
+        if (from instanceof AbstractMarshallableCfg)
+            marshaller.deepCopyNonDefault(from, to, marshaller.defaultValue());
+        else
+            marshaller.deepCopy(from, to);
+    }
+
+    /**
+     * Copy the fields of one Marshallable to another of a different class, matching the fields by name.
+     *
+     * @return false if it couldn't be copied this way, and nothing was changed
+     */
+    static boolean project(@NotNull Object from, @NotNull Object to) {
+        if (!canCopy(from) || !canCopy(to))
+            return false;
+        Map<Class, Projection> projections = PROJECTIONS.get(from.getClass());
+        Projection projection = projections.get(to.getClass());
+        if (projection == null) {
+            projection = new Projection(from.getClass(), to.getClass());
+            projections.put(to.getClass(), projection);
+        }
+        if (projection.targetFields == null)
+            return false;
+        projection.copy(from, to);
+        return true;
+    }
+
+    /**
+     * @param value    to copy
+     * @param existing in the target which may be copied into, or <code>null</code>
+     * @return the copy, or the value if it is immutable
+     */
+    @Nullable
+    static Object copyValue(@Nullable Object value, @Nullable Object existing) {
+        if (value == null)
+            return null;
+        Class<?> c = value.getClass();
+        if (IMMUTABLE.get(c))
+            return value;
+        boolean reuse = existing != null && existing != value && existing.getClass() == c;
+
+        if (value instanceof StringBuilder) {
+            StringBuilder sb = reuse ? (StringBuilder) existing : new StringBuilder();
+            sb.setLength(0);
+            sb.append((StringBuilder) value);
+            return sb;
+        }
+        if (value instanceof Bytes) {
+            Bytes bytes = existing instanceof Bytes && existing != value ? (Bytes) existing : Bytes.elasticByteBuffer();
+            bytes.clear();
+            bytes.write((Bytes) value);
+            return bytes;
+        }
+        if (c.isArray())
+            return copyArray(value, reuse ? existing : null);
+        if (value instanceof EnumSet) {
+            if (!reuse)
+                return ((EnumSet) value).clone();
+            EnumSet set = (EnumSet) existing;
+            set.clear();
+            set.addAll((EnumSet) value);
+            return set;
+        }
+        if (value instanceof Marshallable && canCopy(value)) {
+            Object to = reuse ? existing : ObjectUtils.newInstance(c);
+            copyFields(value, to);
+            return to;
+        }
+        if (c == ArrayList.class || c == LinkedList.class || c == HashSet.class || c == LinkedHashSet.class) {
+            Collection coll = reuse ? (Collection) existing : (Collection) ObjectUtils.newInstance(c);
+            copyElements((Collection) value, coll, false);
+            return coll;
+        }
+        if (c == HashMap.class || c == LinkedHashMap.class) {
+            Map map = reuse ? (Map) existing : (Map) ObjectUtils.newInstance(c);
+            copyEntries((Map) value, map);
+            return map;
+        }
+        return copyViaWire(value, reuse ? existing : null);
+    }
+
+    private static Object copyArray(Object array, @Nullable Object existing) {
+        int length = Array.getLength(array);
+        Class<?> componentType = array.getClass().getComponentType();
+        Object copy = existing != null && Array.getLength(existing) == length
+                ? existing
+                : Array.newInstance(componentType, length);
+        if (componentType.isPrimitive() || IMMUTABLE.get(componentType)) {
+            System.arraycopy(array, 0, copy, 0, length);
+        } else {
+            Object[] from = (Object[]) array;
+            Object[] to = (Object[]) copy;
+            for (int i = 0; i < length; i++)
+                to[i] = copyValue(from[i], to[i]);
+        }
+        return copy;
+    }
+
+    /**
+     * Replace the elements of a collection with copies of another's.
+     *
+     * @param recycle copy into the elements of a List already there
+     */
+    static void copyElements(@NotNull Collection from, @NotNull Collection to, boolean recycle) {
+        if (recycle && from instanceof List && to instanceof List && to instanceof RandomAccess) {
+            List fromList = (List) from;
+            List toList = (List) to;
+            int size = fromList.size();
+            int i = 0;
+            for (Object value : fromList) {
+                if (i < toList.size())
+                    toList.set(i, copyValue(value, toList.get(i)));
+                else
+                    toList.add(copyValue(value, null));
+                i++;
+            }
+            while (toList.size() > size)
+                toList.remove(toList.size() - 1);
+            return;
+        }
+        if (!to.isEmpty())
+            to.clear();
+        for (Object value : from)
+            to.add(copyValue(value, null));
+    }
+
+    /**
+     * Replace the entries of a map with copies of another's.
+     */
+    static void copyEntries(@NotNull Map<?, ?> from, @NotNull Map to) {
+        if (!to.isEmpty())
+            to.clear();
+        for (Map.Entry<?, ?> entry : from.entrySet())
+            to.put(copyValue(entry.getKey(), null), copyValue(entry.getValue(), null));
+    }
+
+    private static Object copyViaWire(@NotNull Object value, @Nullable Object using) {
+        Wire wire = Wires.acquireBinaryWire();
+        wire.getValueOut().object(value);
+        if (using == null)
+            return value instanceof Collection || value instanceof Map
+                    ? wire.getValueIn().object()
+                    : wire.getValueIn().object(null, value.getClass());
+        wire.getValueIn().typePrefix(); // drop the type prefix.
+        return wire.getValueIn().object(using, using.getClass());
+    }
+
+    /**
+     * Copy a primitive field, at offsets which may differ.
+     */
+    static void copyPrimitive(Class<?> type, Object from, long fromOffset, Object to, long toOffset) {
+        if (type == long.class)
+            unsafePutLong(to, toOffset, unsafeGetLong(from, fromOffset));
+        else if (type == int.class)
+            unsafePutInt(to, toOffset, unsafeGetInt(from, fromOffset));
+        else if (type == double.class)
+            unsafePutDouble(to, toOffset, unsafeGetDouble(from, fromOffset));
+        else if (type == boolean.class)
+            unsafePutBoolean(to, toOffset, unsafeGetBoolean(from, fromOffset));
+        else if (type == byte.class)
+            unsafePutByte(to, toOffset, unsafeGetByte(from, fromOffset));
+        else if (type == short.class)
+            unsafePutShort(to, toOffset, unsafeGetShort(from, fromOffset));
+        else if (type == char.class)
+            unsafePutChar(to, toOffset, unsafeGetChar(from, fromOffset));
+        else if (type == float.class)
+            unsafePutFloat(to, toOffset, unsafeGetFloat(from, fromOffset));
+        else
+            throw new AssertionError(type);
+    }
+
+    /**
+     * The fields of a target class matched by name to those of a source class, worked out once per pair of classes.
+     */
+    static final class Projection {
+        // null if the wire must be used, e.g. a field of the same name has another type
+        @Nullable
+        final WireMarshaller.FieldAccess[] targetFields;
+        // the offset of the field in the source or -1 if it has none
+        final long[] sourceOffsets;
+        final WireMarshaller.FieldAccess[] sourceFields;
+        final Object defaults;
+        // a source which doesn't write the fields with their default values, or null if it writes them all
+        @Nullable
+        final Object sourceDefaults;
+        // a field missing from the source is reset, unless the target only overwrites the fields read
+        final boolean resetMissing;
+
+        Projection(Class<?> fromClass, Class<?> toClass) {
+            WireMarshaller<?> from = WIRE_MARSHALLER_CL.get(fromClass);
+            WireMarshaller<?> to = WIRE_MARSHALLER_CL.get(toClass);
+            defaults = to.defaultValue();
+            sourceDefaults = isCfg(fromClass) ? from.defaultValue() : null;
+            resetMissing = !isCfg(toClass);
+            WireMarshaller.FieldAccess[] targetFields = to.fields;
+            sourceOffsets = new long[targetFields.length];
+            sourceFields = new WireMarshaller.FieldAccess[targetFields.length];
+            boolean direct = defaults != null && !(to instanceof WireMarshallerForUnexpectedFields);
+            for (int i = 0; direct && i < targetFields.length; i++) {
+                WireMarshaller.FieldAccess targetField = targetFields[i];
+                WireMarshaller.FieldAccess sourceField = from.fieldMap.get(targetField.field.getName());
+                if (sourceField == null) {
+                    sourceOffsets[i] = -1;
+                } else if (sourceField.getClass() == targetField.getClass()
+                        && sourceField.field.getType() == targetField.field.getType()) {
+                    sourceOffsets[i] = sourceField.offset;
+                    sourceFields[i] = sourceField;
+                } else {
+                    direct = false;
+                }
+            }
+            this.targetFields = direct ? targetFields : null;
+        }
+
+        void copy(Object from, Object to) {
+            assert targetFields != null;
+            try {
+                for (int i = 0; i < targetFields.length; i++) {
+                    long offset = sourceOffsets[i];
+                    // a field the source wouldn't write is the same as one it doesn't have.
+                    if (offset < 0 || (sourceDefaults != null && sourceFields[i].sameValue(from, sourceDefaults))) {
+                        if (resetMissing)
+                            targetFields[i].copy(defaults, to);
+                    } else
+                        targetFields[i].deepCopy(from, offset, to);
+                }
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
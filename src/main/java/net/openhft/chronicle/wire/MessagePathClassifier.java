@@ -18,17 +18,41 @@
 package net.openhft.chronicle.wire;
 
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.Maths;
+import net.openhft.chronicle.core.util.Histogram;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-import java.util.OptionalInt;
 import java.util.function.IntSupplier;
-import java.util.stream.IntStream;
 
+/**
+ * Classifies a message by the longest registered pattern its {@link MessageHistory} source ids end with.
+ * <p>
+ * The patterns are held as a trie of the source ids in reverse, so a message is classified by one walk back from its
+ * last source id, without boxing. Each child is found in an open addressed table keyed on the parent node and the
+ * source id.
+ * <p>
+ * With {@link #histograms(boolean)} enabled, {@link #sample(MessageHistory)} also records the latency from the first
+ * to the last timing of the message in a Histogram per path.
+ */
 public class MessagePathClassifier implements IntSupplier {
-    private final List<int[]> sourcePattern = new ArrayList<>();
-    private final List<Integer> pathIds = new ArrayList<>();
+    private static final int NO_PATH = -1;
+    private static final int ROOT = 0;
+
+    // per node, the pathId of the pattern ending there or NO_PATH
+    private int[] nodePathIds = {NO_PATH};
+    private int nodes = 1;
+    // the child node of a parent node and source id, 0 for none as the root is never a child.
+    private long[] childKeys = new long[16];
+    private int[] children = new int[16];
+    private int childCount = 0;
+    @Nullable
+    private Histogram[] histograms;
+
+    private static long key(int node, int sourceId) {
+        return ((long) node << 32) | (sourceId & 0xFFFFFFFFL);
+    }
 
     /**
      * @param pathId  0 indexed pathId for sourcces ending with
@@ -36,41 +60,133 @@ public class MessagePathClassifier implements IntSupplier {
      * @return this
      */
     public MessagePathClassifier addPathForSourcesEnding(int pathId, int... sources) {
-        OptionalInt duplicate = IntStream.range(0, sourcePattern.size())
-                .filter(s -> Arrays.equals(sources, sourcePattern.get(s)))
-                .findFirst();
-        if (duplicate.isPresent()) {
-            if (sources[duplicate.getAsInt()] == pathId) {
+        if (pathId < 0)
+            throw new IllegalArgumentException("pathId must be 0 or more, not " + pathId);
+        int node = ROOT;
+        for (int i = sources.length - 1; i >= 0; i--) {
+            int child = child(node, sources[i]);
+            if (child == ROOT)
+                child = addChild(node, sources[i]);
+            node = child;
+        }
+        int existing = nodePathIds[node];
+        if (existing != NO_PATH) {
+            if (existing == pathId) {
                 Jvm.debug().on(getClass(), "Added pathId " + pathId + " more than once");
                 return this;
             }
-            throw new IllegalArgumentException("Duplicate entry for " + Arrays.toString(sources) + " for path " + duplicate.getAsInt() + " and " + pathId);
+            throw new IllegalArgumentException("Duplicate entry for " + Arrays.toString(sources) + " for path " + existing + " and " + pathId);
         }
-        sourcePattern.add(sources);
-        pathIds.add(pathId);
+        nodePathIds[node] = pathId;
+        if (histograms != null)
+            addHistogram(pathId);
         return this;
     }
 
+    /**
+     * @param enabled whether {@link #sample(MessageHistory)} records a latency histogram per path
+     * @return this
+     */
+    public MessagePathClassifier histograms(boolean enabled) {
+        if (!enabled) {
+            histograms = null;
+        } else if (histograms == null) {
+            histograms = new Histogram[0];
+            for (int i = 0; i < nodes; i++)
+                if (nodePathIds[i] != NO_PATH)
+                    addHistogram(nodePathIds[i]);
+        }
+        return this;
+    }
+
+    private void addHistogram(int pathId) {
+        assert histograms != null;
+        if (pathId >= histograms.length)
+            histograms = Arrays.copyOf(histograms, pathId + 1);
+        if (histograms[pathId] == null)
+            histograms[pathId] = new Histogram();
+    }
+
+    /**
+     * @return the latency histogram of a path, or <code>null</code> if histograms are not enabled
+     */
+    @Nullable
+    public Histogram histogram(int pathId) {
+        return histograms == null || pathId >= histograms.length ? null : histograms[pathId];
+    }
+
+    private int child(int node, int sourceId) {
+        long key = key(node, sourceId);
+        int mask = children.length - 1;
+        for (int i = (int) Maths.agitate(key) & mask; ; i = (i + 1) & mask) {
+            int child = children[i];
+            if (child == ROOT || childKeys[i] == key)
+                return child;
+        }
+    }
+
+    private int addChild(int node, int sourceId) {
+        if (nodes == nodePathIds.length) {
+            nodePathIds = Arrays.copyOf(nodePathIds, nodes * 2);
+            Arrays.fill(nodePathIds, nodes, nodePathIds.length, NO_PATH);
+        }
+        int child = nodes++;
+        if (++childCount * 2 > children.length)
+            resize();
+        put(childKeys, children, key(node, sourceId), child);
+        return child;
+    }
+
+    private void resize() {
+        long[] childKeys2 = new long[children.length * 2];
+        int[] children2 = new int[children.length * 2];
+        for (int i = 0; i < children.length; i++)
+            if (children[i] != ROOT)
+                put(childKeys2, children2, childKeys[i], children[i]);
+        childKeys = childKeys2;
+        children = children2;
+    }
+
+    private static void put(long[] childKeys, int[] children, long key, int child) {
+        int mask = children.length - 1;
+        int i = (int) Maths.agitate(key) & mask;
+        while (children[i] != ROOT)
+            i = (i + 1) & mask;
+        childKeys[i] = key;
+        children[i] = child;
+    }
+
     @Override
     public int getAsInt() {
         return pathFor(MessageHistory.get());
     }
 
-    public int pathFor(MessageHistory messageHistory) {
-        Integer pathId = null;
-        int length = -1;
-        for (int i = 0; i < sourcePattern.size(); i++) {
-            int[] sourceIds = sourcePattern.get(i);
-            if (messageHistory.sourceIdsEndsWith(sourceIds)) {
-                Integer pathId2 = pathIds.get(i);
-                if (sourceIds.length > length) {
-                    pathId = pathId2;
-                    length = sourceIds.length;
-                }
-            }
+    public int pathFor(@NotNull MessageHistory messageHistory) {
+        int node = ROOT;
+        int pathId = nodePathIds[ROOT];
+        for (int i = messageHistory.sources() - 1; i >= 0; i--) {
+            node = child(node, messageHistory.sourceId(i));
+            if (node == ROOT)
+                break;
+            if (nodePathIds[node] != NO_PATH)
+                pathId = nodePathIds[node];
         }
-        if (pathId == null)
+        if (pathId == NO_PATH)
             throw new IllegalStateException("Unable to classify the pathId for " + messageHistory);
         return pathId;
     }
+
+    /**
+     * Classify the message and, if histograms are enabled, record the time from its first to its last timing.
+     *
+     * @return the pathId
+     */
+    public int sample(@NotNull MessageHistory messageHistory) {
+        int pathId = pathFor(messageHistory);
+        Histogram[] histograms = this.histograms;
+        int timings = messageHistory.timings();
+        if (histograms != null && timings >= 2)
+            histograms[pathId].sample(messageHistory.timing(timings - 1) - messageHistory.timing(0));
+        return pathId;
+    }
 }
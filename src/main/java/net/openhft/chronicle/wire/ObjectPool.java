@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A source of reusable instances for {@link ValueIn#object(Class)} and the like, used instead of creating a new
+ * object when there is no <code>using</code> object to read into, e.g. for polymorphic fields, map values and
+ * elements of typed sequences.
+ * <p>
+ * A pool is set per thread with {@link #forThisThread(ObjectPool)}. An instance is read into as a <code>using</code>
+ * object would be, so the pool should reset it if fields might not be read, see {@link ClassObjectPool}.
+ */
+public interface ObjectPool {
+    /**
+     * @return the pool for the current thread or <code>null</code> if there isn't one.
+     */
+    @Nullable
+    static ObjectPool forThisThread() {
+        return ObjectPools.forThisThread();
+    }
+
+    /**
+     * Set the pool for the current thread, or <code>null</code> to always create new objects.
+     */
+    static void forThisThread(@Nullable ObjectPool pool) {
+        ObjectPools.forThisThread(pool);
+    }
+
+    /**
+     * @return an instance to read into or <code>null</code> to create a new one as usual.
+     */
+    @Nullable
+    <T> T acquire(@NotNull Class<T> tClass);
+
+    /**
+     * Return an instance no longer referenced, so it can be acquired again.
+     */
+    void release(@NotNull Object o);
+
+    /**
+     * Called when a reading DocumentContext on this thread is closed.
+     */
+    default void documentClosed() {
+    }
+}
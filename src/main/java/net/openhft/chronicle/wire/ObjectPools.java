@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds the {@link ObjectPool} for each thread.
+ */
+final class ObjectPools {
+    private static final ThreadLocal<ObjectPool> POOL = new ThreadLocal<>();
+    // avoids the thread local lookup until a pool has been set on any thread.
+    private static boolean used = false;
+
+    private ObjectPools() {
+    }
+
+    @Nullable
+    static ObjectPool forThisThread() {
+        return used ? POOL.get() : null;
+    }
+
+    static void forThisThread(@Nullable ObjectPool pool) {
+        if (pool != null)
+            used = true;
+        POOL.set(pool);
+    }
+
+    @Nullable
+    static <T> T acquire(@Nullable Class<T> tClass) {
+        ObjectPool pool = forThisThread();
+        return pool == null || tClass == null ? null : pool.acquire(tClass);
+    }
+
+    static void documentClosed() {
+        ObjectPool pool = forThisThread();
+        if (pool != null)
+            pool.documentClosed();
+    }
+}
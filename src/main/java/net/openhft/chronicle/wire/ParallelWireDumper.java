@@ -0,0 +1,246 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Dumps a file of size prefixed blobs as text, as {@link WireDumper} does, rendering many parts of the file at once.
+ * <p>
+ * The file is memory mapped and the 4-byte headers are walked to split the documents into chunks of about
+ * {@link #chunkBytes(long)} bytes. Each chunk is rendered to its own buffer by a task in a ForkJoinPool, and the
+ * results are written out in order, so the text is the same as the {@link WireDumper} produces.
+ * Only a few chunks per thread are held in memory at once.
+ * <p>
+ * A {@link DocumentFilter} skips documents before they are rendered, by whether they are meta data and by their
+ * first event name.
+ */
+public class ParallelWireDumper {
+    static final long DEFAULT_CHUNK_BYTES = 4 << 20;
+    private static final long MAPPING_CHUNK = 64 << 20;
+    private static final long MAPPING_OVERLAP = 16 << 20;
+
+    private boolean padding = AbstractWire.DEFAULT_USE_PADDING;
+    private boolean abbrev = false;
+    private long chunkBytes = DEFAULT_CHUNK_BYTES;
+    @NotNull
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    @Nullable
+    private DocumentFilter filter;
+
+    /**
+     * @param padding whether the headers are aligned, as for {@link WireDumper#of(Bytes, boolean)}
+     */
+    public ParallelWireDumper padding(boolean padding) {
+        this.padding = padding;
+        return this;
+    }
+
+    public ParallelWireDumper abbrev(boolean abbrev) {
+        this.abbrev = abbrev;
+        return this;
+    }
+
+    /**
+     * @param chunkBytes the size of file each task renders, rounded up to whole documents
+     */
+    public ParallelWireDumper chunkBytes(long chunkBytes) {
+        if (chunkBytes <= 0)
+            throw new IllegalArgumentException("chunkBytes must be positive");
+        this.chunkBytes = chunkBytes;
+        return this;
+    }
+
+    public ParallelWireDumper pool(@NotNull ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * @param filter of the documents to render, or <code>null</code> for all of them
+     */
+    public ParallelWireDumper filter(@Nullable DocumentFilter filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    @NotNull
+    public String asString(@NotNull File file) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        dump(file, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Write the text of the file to out, in order.
+     */
+    public void dump(@NotNull File file, @NotNull Appendable out) throws IOException {
+        long length = file.length();
+        List<Chunk> chunks = chunks(file, length);
+        int window = Math.max(2, pool.getParallelism() * 2);
+        Deque<ForkJoinTask<StringBuilder>> pending = new ArrayDeque<>();
+        for (Chunk chunk : chunks) {
+            if (pending.size() >= window)
+                out.append(pending.removeFirst().join());
+            pending.add(pool.submit(() -> render(file, length, chunk)));
+        }
+        while (!pending.isEmpty())
+            out.append(pending.removeFirst().join());
+    }
+
+    private List<Chunk> chunks(File file, long length) throws FileNotFoundException {
+        List<Chunk> chunks = new ArrayList<>();
+        MappedBytes bytes = mapped(file, length);
+        try {
+            long start = 0;
+            long headerNumber = -1;
+            long startHeaderNumber = -1;
+            while (true) {
+                bytes.readPositionForHeader(padding);
+                long position = bytes.readPosition();
+                if (position - start >= chunkBytes) {
+                    chunks.add(new Chunk(start, position, startHeaderNumber));
+                    start = position;
+                    startHeaderNumber = headerNumber;
+                }
+                if (bytes.readRemaining() < 4)
+                    break;
+                int header = bytes.readInt();
+                int len = Wires.lengthOf(header);
+                // the rest is rendered as the WireDumper would, by the last chunk.
+                if (header == 0 || len == 0 || len > bytes.readRemaining())
+                    break;
+                if (Wires.isReadyData(header))
+                    headerNumber++;
+                bytes.readSkip(len);
+            }
+            chunks.add(new Chunk(start, length, startHeaderNumber));
+        } finally {
+            bytes.releaseLast();
+        }
+        return chunks;
+    }
+
+    private StringBuilder render(File file, long length, Chunk chunk) {
+        StringBuilder sb = new StringBuilder();
+        MappedBytes bytes;
+        try {
+            bytes = mapped(file, length);
+        } catch (FileNotFoundException e) {
+            throw new IORuntimeException(e);
+        }
+        Bytes<ByteBuffer> buffer = Bytes.elasticByteBuffer();
+        try {
+            bytes.readLimit(chunk.end);
+            bytes.readPosition(chunk.start);
+            WireDumper dumper = WireDumper.of(bytes, padding);
+            dumper.headerNumber(chunk.headerNumber);
+            BinaryWire wire = filter == null ? null : new BinaryWire(bytes);
+            StringBuilder name = new StringBuilder();
+            while (bytes.readRemaining() >= 4) {
+                if (wire != null && skip(bytes, wire, dumper, name))
+                    continue;
+                if (dumper.dumpOne(sb, buffer, abbrev))
+                    break;
+            }
+        } catch (Throwable t) {
+            sb.append(" ").append(t);
+        } finally {
+            buffer.releaseLast();
+            bytes.releaseLast();
+        }
+        return sb;
+    }
+
+    /**
+     * @return true if the next document was skipped by the filter.
+     */
+    private boolean skip(Bytes<?> bytes, BinaryWire wire, WireDumper dumper, StringBuilder name) {
+        bytes.readPositionForHeader(padding);
+        long start = bytes.readPosition();
+        int header = bytes.readInt(start);
+        int len = Wires.lengthOf(header);
+        // leave the end to the dumper.
+        if (header == 0 || len == 0 || len > bytes.readRemaining() - 4)
+            return false;
+
+        long limit = bytes.readLimit();
+        try {
+            bytes.readPositionRemaining(start + 4, len);
+            wire.readEventName(name);
+        } catch (Exception e) {
+            // not binary, or not an event
+            name.setLength(0);
+        } finally {
+            bytes.readLimit(limit);
+            bytes.readPosition(start);
+        }
+        assert filter != null;
+        if (filter.accept(!Wires.isData(header), name))
+            return false;
+
+        if (Wires.isReadyData(header))
+            dumper.headerNumber(dumper.headerNumber() + 1);
+        bytes.readPosition(start + 4 + len);
+        return true;
+    }
+
+    private static MappedBytes mapped(File file, long length) throws FileNotFoundException {
+        MappedBytes bytes = MappedBytes.mappedBytes(file, MAPPING_CHUNK, MAPPING_OVERLAP, true);
+        bytes.readLimit(length);
+        return bytes;
+    }
+
+    @FunctionalInterface
+    public interface DocumentFilter {
+        /**
+         * @param metaData  whether the document is meta data
+         * @param eventName the first event name of the document, or empty if it doesn't start with one
+         * @return whether to render the document
+         */
+        boolean accept(boolean metaData, @NotNull CharSequence eventName);
+    }
+
+    static final class Chunk {
+        final long start;
+        final long end;
+        // of the data document before the first one in this chunk
+        final long headerNumber;
+
+        Chunk(long start, long end, long headerNumber) {
+            this.start = start;
+            this.end = end;
+            this.headerNumber = headerNumber;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an interface to have its MethodWriter, or a class to have its MethodReader, generated at build time rather
+ * than compiled when first used.
+ * <p>
+ * The chronicle-wire-annotation-processor lists the marked types as they are compiled, and {@link GenerateProxiesMain}
+ * then writes the classes alongside them. The method writer and reader builders load these by name before falling
+ * back to runtime compilation.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Pregenerate {
+    /**
+     * @return the wire types to generate a MethodWriter for. MethodReaders are generated for the default wire type.
+     */
+    WireType[] wireTypes() default {WireType.BINARY_LIGHT, WireType.TEXT};
+
+    /**
+     * @return whether the MethodWriters write meta data
+     */
+    boolean metaData() default false;
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Collection field to be read into the elements it already holds rather than replacing them with new ones.
+ * <p>
+ * Surplus elements are kept in a per thread pool for the field, so reading the same DTO repeatedly doesn't allocate
+ * once it has seen its largest collection. Only {@link Marshallable} elements are reused, and they shouldn't be
+ * retained elsewhere as they will be overwritten by the next read.
+ * <p>
+ * This is enabled for all collection fields and for Lists and Sets read with a <code>using</code> object with
+ * <code>-Dwire.recycle.elements=true</code>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface RecycleElements {
+}
@@ -10,15 +10,30 @@ import java.nio.BufferUnderflowException;
 
 import static net.openhft.chronicle.core.UnsafeMemory.MEMORY;
 
+/**
+ * A Marshallable whose primitive fields are written and read as one block of memory, after an int describing how many
+ * longs, ints, shorts and bytes there are.
+ * <p>
+ * The description, start and length of the block are worked out from the field offsets the first time the class is
+ * used, and a class whose fields are not one contiguous block is rejected. A sub-class can still override them.
+ * Data written with another description, e.g. by another version of the class, is read with a cached plan of bulk
+ * copies and zero fills.
+ */
 public abstract class SelfDescribingTriviallyCopyable extends SelfDescribingMarshallable {
     @FieldGroup("header")
     transient int description = $description();
 
-    protected abstract int $description();
+    protected int $description() {
+        return TriviallyCopyableLayout.LAYOUTS.get(getClass()).description;
+    }
 
-    protected abstract int $start();
+    protected int $start() {
+        return TriviallyCopyableLayout.LAYOUTS.get(getClass()).start;
+    }
 
-    protected abstract int $length();
+    protected int $length() {
+        return TriviallyCopyableLayout.LAYOUTS.get(getClass()).length;
+    }
 
     @Override
     public void readMarshallable(BytesIn bytes) throws IORuntimeException, BufferUnderflowException, IllegalStateException {
@@ -30,7 +45,6 @@ public abstract class SelfDescribingTriviallyCopyable extends SelfDescribingMars
     }
 
     private void carefulCopy(BytesIn<?> in, int description0) {
-        int offset = $start();
         int longs0 = description0 >>> 24;
         int ints0 = (description0 >>> 16) & 0xFF;
         int shorts0 = (description0 >>> 8) & 0x7F;
@@ -39,48 +53,36 @@ public abstract class SelfDescribingTriviallyCopyable extends SelfDescribingMars
         if (Integer.bitCount(description0) % 2 == 0 || length > in.readRemaining())
             throw new IllegalStateException("Invalid description: " + Integer.toHexString(description0) + ", length: " + length + ", remaining: " + in.readRemaining());
 
-        int longs = $description() >>> 24;// max 255
-        for (int i = 0; i < Math.max(longs, longs0); i++) {
-            long value = 0;
-            if (i < longs0)
-                value = in.readLong();
-            if (i < longs) {
-                MEMORY.writeLong(this, offset, value);
-                offset += 8;
-            }
-        }
-        int ints = ($description() >>> 16) & 0xFF;// max 255
-        for (int i = 0; i < Math.max(ints, ints0); i++) {
-            int value = 0;
-            if (i < ints0)
-                value = in.readInt();
-            if (i < ints) {
-                MEMORY.writeInt(this, offset, value);
-                offset += 4;
-            }
-        }
-        int shorts = ($description() >>> 8) & 0x7F; // max 127
-        for (int i = 0; i < Math.max(shorts, shorts0); i++) {
-            short value = 0;
-            if (i < shorts0)
-                value = in.readShort();
-            if (i < shorts) {
-                MEMORY.writeShort(this, offset, value);
-                offset += 2;
-            }
-        }
-        int bytes = $description() & 0xFF; // max 255
-        for (int i = 0; i < Math.max(bytes, bytes0); i++) {
-            byte value = 0;
-            if (i < bytes0)
-                value = in.readByte();
-            if (i < bytes) {
-                MEMORY.writeByte(this, offset, value);
-                offset += 1;
+        TriviallyCopyableLayout.CopyPlan plan = TriviallyCopyableLayout.plan(getClass(), $description(), description0);
+        int offset = $start();
+        int[] kinds = plan.kinds;
+        int[] lengths = plan.lengths;
+        for (int i = 0; i < kinds.length; i++) {
+            int len = lengths[i];
+            switch (kinds[i]) {
+                case TriviallyCopyableLayout.CopyPlan.COPY:
+                    in.unsafeReadObject(this, offset, len);
+                    offset += len;
+                    break;
+                case TriviallyCopyableLayout.CopyPlan.SKIP:
+                    in.readSkip(len);
+                    break;
+                default:
+                    zero(offset, len);
+                    offset += len;
+                    break;
             }
         }
     }
 
+    private void zero(int offset, int length) {
+        int i = 0;
+        for (; i <= length - 8; i += 8)
+            MEMORY.writeLong(this, offset + i, 0L);
+        for (; i < length; i++)
+            MEMORY.writeByte(this, offset + i, (byte) 0);
+    }
+
     @Override
     public void writeMarshallable(BytesOut bytes) throws IllegalStateException, BufferOverflowException, BufferUnderflowException, ArithmeticException {
         bytes.writeInt($description());
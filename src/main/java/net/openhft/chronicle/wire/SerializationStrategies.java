@@ -286,6 +286,10 @@ public enum SerializationStrategies implements SerializationStrategy {
         @Override
         public Object readUsing(Object o, @NotNull ValueIn in, BracketType bracketType) {
             @NotNull Set<Object> set = (o == null ? new LinkedHashSet<>() : (Set<Object>) o);
+            if (CollectionRecycler.RECYCLE_ELEMENTS) {
+                CollectionRecycler.read(set, in, null, CollectionRecycler.pool());
+                return set;
+            }
             @NotNull final WireIn wireIn = in.wireIn();
             @NotNull final Bytes<?> bytes = wireIn.bytes();
             long pos = bytes.readPosition();
@@ -323,6 +327,10 @@ public enum SerializationStrategies implements SerializationStrategy {
         @Override
         public Object readUsing(Object o, @NotNull ValueIn in, BracketType bracketType) {
             @NotNull List<Object> list = (o == null ? new ArrayList<>() : (List<Object>) o);
+            if (CollectionRecycler.RECYCLE_ELEMENTS) {
+                CollectionRecycler.read(list, in, null, CollectionRecycler.pool());
+                return list;
+            }
             @NotNull final WireIn wireIn = in.wireIn();
             long pos = wireIn.bytes().readPosition();
             while (in.hasNextSequenceItem()) {
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.RandomDataInput;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteOrder;
+
+/**
+ * Finds the first of a set of stop bytes eight bytes at a time using SWAR (SIMD within a register) tests on a long,
+ * falling back to one byte at a time for the last few bytes.
+ * <p>
+ * For each stop byte, <code>v = word ^ stop * ONES</code> has a zero byte where it matches, and
+ * <code>(v - ONES) &amp; ~v &amp; HIGHS</code> sets the high bit of the lowest zero byte. Bytes above it can be false
+ * positives from the borrow, but only the lowest match is used.
+ */
+final class StopByteScanner {
+    // the text wire readers stop at an escape or a byte needing UTF-8 decoding, as well as their terminators.
+    static final StopByteScanner QUOTES = new StopByteScanner("\"\\", true);
+    static final StopByteScanner SINGLE_QUOTES = new StopByteScanner("'\\", true);
+    // also a superset of STRICT_END_OF_TEXT and STRICT_END_OF_TEXT_JSON, where the tester decides whether ':' or ',' stop
+    static final StopByteScanner END_OF_TEXT = new StopByteScanner("\"#\0\r\n}]:,\\", true);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    private final long[] patterns;
+    private final boolean nonAscii;
+    private final boolean[] stops = new boolean[256];
+
+    /**
+     * @param stopChars bytes to stop at
+     * @param nonAscii  whether to stop at bytes 0x80 and above
+     */
+    StopByteScanner(@NotNull String stopChars, boolean nonAscii) {
+        patterns = new long[stopChars.length()];
+        for (int i = 0; i < stopChars.length(); i++) {
+            char ch = stopChars.charAt(i);
+            assert ch < 0x80;
+            patterns[i] = ch * ONES;
+            stops[ch] = true;
+        }
+        this.nonAscii = nonAscii;
+        if (nonAscii)
+            for (int i = 0x80; i < stops.length; i++)
+                stops[i] = true;
+    }
+
+    /**
+     * @return the offset of the first stop byte in [from, to) or -1 if there isn't one.
+     */
+    long indexOf(@NotNull RandomDataInput in, long from, long to) {
+        long pos = from;
+        if (LITTLE_ENDIAN) {
+            for (; pos <= to - 8; pos += 8) {
+                long found = find(in.readLong(pos));
+                if (found != 0)
+                    return pos + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; pos < to; pos++)
+            if (stops[in.readUnsignedByte(pos)])
+                return pos;
+        return -1;
+    }
+
+    private long find(long word) {
+        long found = nonAscii ? word & HIGHS : 0;
+        for (long pattern : patterns) {
+            long v = word ^ pattern;
+            found |= (v - ONES) & ~v & HIGHS;
+        }
+        return found;
+    }
+}
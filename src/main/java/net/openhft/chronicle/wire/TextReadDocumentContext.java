@@ -87,6 +87,7 @@ public class TextReadDocumentContext implements ReadDocumentContext {
 
     @Override
     public void close() {
+        ObjectPools.documentClosed();
         long readLimit = this.readLimit;
         long readPosition = this.readPosition;
 
@@ -429,7 +429,8 @@ public class TextWire extends AbstractWire implements Wire {
             if (ch == '"') {
                 bytes.readSkip(1);
 
-                parseUntil(sb, getEscapingQuotes());
+                if (!parseAsciiUntil(sb, StopByteScanner.QUOTES))
+                    parseUntil(sb, getEscapingQuotes());
 
                 consumePadding();
                 ch = readCode();
@@ -439,7 +440,8 @@ public class TextWire extends AbstractWire implements Wire {
             } else if (ch == '\'') {
                 bytes.readSkip(1);
 
-                parseUntil(sb, getEscapingSingleQuotes());
+                if (!parseAsciiUntil(sb, StopByteScanner.SINGLE_QUOTES))
+                    parseUntil(sb, getEscapingSingleQuotes());
 
                 consumePadding();
                 ch = readCode();
@@ -450,7 +452,7 @@ public class TextWire extends AbstractWire implements Wire {
                 sb.setLength(0);
                 return sb;
 
-            } else {
+            } else if (!parseAsciiUntil(sb, StopByteScanner.END_OF_TEXT)) {
                 parseUntil(sb, getEscapingEndOfText());
             }
             unescape(sb);
@@ -497,8 +499,10 @@ public class TextWire extends AbstractWire implements Wire {
             } else if (ch == '"' || ch == '\'') {
                 bytes.readSkip(1);
 
-                final StopCharTester escapingQuotes = ch == '"' ? getEscapingQuotes() : getEscapingSingleQuotes();
-                parseUntil(sb, escapingQuotes);
+                if (!parseAsciiUntil(sb, ch == '"' ? StopByteScanner.QUOTES : StopByteScanner.SINGLE_QUOTES)) {
+                    final StopCharTester escapingQuotes = ch == '"' ? getEscapingQuotes() : getEscapingSingleQuotes();
+                    parseUntil(sb, escapingQuotes);
+                }
 
                 consumePadding(1);
                 ch = readCode();
@@ -509,7 +513,7 @@ public class TextWire extends AbstractWire implements Wire {
                 sb.setLength(0);
                 return null;
 
-            } else {
+            } else if (!parseAsciiUntil(sb, StopByteScanner.END_OF_TEXT)) {
                 parseUntil(sb, getEscapingEndOfText());
             }
             unescape(sb);
@@ -1002,6 +1006,50 @@ public class TextWire extends AbstractWire implements Wire {
         }
     }
 
+    /**
+     * As {@link #parseUntil(StringBuilder, StopCharsTester)}, skipping to the first byte the scanner stops at before
+     * handing over to the testers, so the scanner must stop at every byte the testers could stop at.
+     */
+    void parseUntil(@NotNull StringBuilder sb, @NotNull StopCharsTester testers, @NotNull StopByteScanner scanner) {
+        sb.setLength(0);
+        long start = bytes.readPosition();
+        long end = scanner.indexOf(bytes, start, bytes.readLimit());
+        if (end > start) {
+            appendAscii(sb, start, end);
+            bytes.readPosition(end);
+        }
+        if (use8bit) {
+            AppendableUtil.read8bitAndAppend(bytes, sb, testers);
+        } else {
+            AppendableUtil.readUTFAndAppend(bytes, sb, testers);
+        }
+    }
+
+    /**
+     * Reads ASCII text up to and including the first byte the scanner stops at, as parseUntil would with the matching
+     * escaping tester.
+     *
+     * @return false, having read nothing, if an escape or non-ASCII byte comes first or there is no stop byte.
+     */
+    boolean parseAsciiUntil(@NotNull StringBuilder sb, @NotNull StopByteScanner scanner) {
+        long start = bytes.readPosition();
+        long end = scanner.indexOf(bytes, start, bytes.readLimit());
+        if (end < 0)
+            return false;
+        int stop = bytes.readUnsignedByte(end);
+        if (stop == '\\' || stop >= 0x80)
+            return false;
+        sb.setLength(0);
+        appendAscii(sb, start, end);
+        bytes.readPosition(end + 1);
+        return true;
+    }
+
+    private void appendAscii(@NotNull StringBuilder sb, long start, long end) {
+        for (long i = start; i < end; i++)
+            sb.append((char) bytes.readUnsignedByte(i));
+    }
+
     public void append(@NotNull CharSequence cs) {
         if (use8bit)
             bytes.append8bit(cs);
@@ -2240,11 +2288,11 @@ public class TextWire extends AbstractWire implements Wire {
 
                 }
                 case '"':
-                    readText(a, getEscapingQuotes());
+                    readText(a, getEscapingQuotes(), StopByteScanner.QUOTES);
                     break;
 
                 case '\'':
-                    readText(a, getEscapingSingleQuotes());
+                    readText(a, getEscapingSingleQuotes(), StopByteScanner.SINGLE_QUOTES);
                     break;
 
                 case '!': {
@@ -2281,6 +2329,8 @@ public class TextWire extends AbstractWire implements Wire {
                     if (rem > 0) {
                         if (a instanceof Bytes) {
                             bytes.parse8bit((Bytes) a, getStrictEscapingEndOfText());
+                        } else if (a instanceof StringBuilder) {
+                            parseUntil((StringBuilder) a, getStrictEscapingEndOfText(), StopByteScanner.END_OF_TEXT);
                         } else if (use8bit) {
                             bytes.parse8bit((StringBuilder) a, getStrictEscapingEndOfText());
                         } else {
@@ -2324,12 +2374,14 @@ public class TextWire extends AbstractWire implements Wire {
             } while (!bytes.isEmpty() && c != '}');
         }
 
-        private <ACS extends Appendable & CharSequence> void readText(@NotNull ACS a, @NotNull StopCharTester quotes) {
+        private <ACS extends Appendable & CharSequence> void readText(@NotNull ACS a, @NotNull StopCharTester quotes, @NotNull StopByteScanner scanner) {
             bytes.readSkip(1);
-            if (use8bit)
-                bytes.parse8bit(a, quotes);
-            else
-                bytes.parseUtf8(a, quotes);
+            if (!(a instanceof StringBuilder) || !parseAsciiUntil((StringBuilder) a, scanner)) {
+                if (use8bit)
+                    bytes.parse8bit(a, quotes);
+                else
+                    bytes.parseUtf8(a, quotes);
+            }
             unescape(a);
             consumePadding(1);
         }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.BytesUtil;
+import net.openhft.chronicle.bytes.FieldGroup;
+import net.openhft.chronicle.core.ClassLocal;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static net.openhft.chronicle.core.UnsafeMemory.unsafeObjectFieldOffset;
+
+/**
+ * The layout of the primitive fields of a {@link SelfDescribingTriviallyCopyable}, worked out from their offsets the
+ * first time the class is used.
+ * <p>
+ * The fields, other than those in the "header" {@link FieldGroup}, must be one contiguous block of longs, then ints,
+ * then shorts, then bytes, as that is what the description encodes. A class laid out any other way is rejected.
+ * <p>
+ * Reading a description which differs from the class' is done with a {@link CopyPlan} of a few bulk copies, skips and
+ * zero fills, the last one used by each class being cached.
+ */
+final class TriviallyCopyableLayout {
+    static final ClassLocal<TriviallyCopyableLayout> LAYOUTS = ClassLocal.withInitial(TriviallyCopyableLayout::new);
+    // the last plan used per class, a differing description is usually from the same other version.
+    private static final ClassLocal<CopyPlan[]> LAST_PLAN = ClassLocal.withInitial(c -> new CopyPlan[1]);
+
+    final int description;
+    final int start;
+    final int length;
+
+    private TriviallyCopyableLayout(Class<?> tClass) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = tClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || !field.getType().isPrimitive())
+                    continue;
+                FieldGroup fieldGroup = field.getAnnotation(FieldGroup.class);
+                if (fieldGroup != null && fieldGroup.value().equals("header"))
+                    continue;
+                fields.add(field);
+            }
+        }
+        if (fields.isEmpty())
+            throw new IllegalArgumentException(tClass.getName() + " has no primitive fields to copy");
+        fields.sort(Comparator.comparingLong(f -> unsafeObjectFieldOffset(f)));
+
+        int[] counts = new int[4]; // longs, ints, shorts, bytes
+        int lastSize = Integer.MAX_VALUE;
+        long end = unsafeObjectFieldOffset(fields.get(0));
+        for (Field field : fields) {
+            long offset = unsafeObjectFieldOffset(field);
+            int size = sizeOf(field.getType());
+            if (offset != end || size > lastSize)
+                throw new IllegalArgumentException(tClass.getName() + " primitive fields are not one block of longs, ints, shorts then bytes at " + field.getName());
+            counts[Integer.numberOfTrailingZeros(8 / size)]++;
+            lastSize = size;
+            end = offset + size;
+        }
+        if (counts[0] > 255 || counts[1] > 255 || counts[2] > 127 || counts[3] > 255)
+            throw new IllegalArgumentException(tClass.getName() + " has too many fields to describe");
+
+        int[] range = BytesUtil.triviallyCopyableRange(tClass);
+        start = (int) unsafeObjectFieldOffset(fields.get(0));
+        length = (int) (end - start);
+        if (range[0] != start || range[1] != end)
+            throw new IllegalArgumentException(tClass.getName() + " primitive fields are not contiguous, range " + range[0] + " to " + range[1]);
+
+        int description0 = (counts[0] << 24) | (counts[1] << 16) | (counts[2] << 8) | counts[3];
+        // an odd number of bits set marks a valid description
+        if (Integer.bitCount(description0) % 2 == 0)
+            description0 |= 0x8000;
+        description = description0;
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class)
+            return 8;
+        if (type == int.class || type == float.class)
+            return 4;
+        if (type == short.class || type == char.class)
+            return 2;
+        return 1;
+    }
+
+    /**
+     * @return the plan for reading data with description0 into a class with this description, which needn't use
+     * the worked out layout.
+     */
+    @NotNull
+    static CopyPlan plan(Class<?> tClass, int description, int description0) {
+        CopyPlan[] last = LAST_PLAN.get(tClass);
+        CopyPlan plan = last[0];
+        if (plan == null || plan.description != description || plan.description0 != description0)
+            last[0] = plan = new CopyPlan(description, description0);
+        return plan;
+    }
+
+    /**
+     * How to read data written with one description into a class with another. Each run of longs, ints, shorts and
+     * bytes in common is copied, any extra written is skipped and any extra to read is zeroed, adjoining steps of
+     * the same kind being merged.
+     */
+    static final class CopyPlan {
+        static final int COPY = 0, SKIP = 1, ZERO = 2;
+
+        final int description;
+        final int description0;
+        final int[] kinds;
+        final int[] lengths;
+
+        CopyPlan(int description, int description0) {
+            this.description = description;
+            this.description0 = description0;
+            int[] kinds = new int[12];
+            int[] lengths = new int[12];
+            int steps = 0;
+            int size = 8;
+            for (int shift = 24; shift >= 0; shift -= 8, size >>= 1) {
+                int mask = shift == 8 ? 0x7F : 0xFF;
+                int count = (description >>> shift) & mask;
+                int count0 = (description0 >>> shift) & mask;
+                int common = Math.min(count, count0);
+                steps = add(kinds, lengths, steps, COPY, common * size);
+                steps = add(kinds, lengths, steps, SKIP, (count0 - common) * size);
+                steps = add(kinds, lengths, steps, ZERO, (count - common) * size);
+            }
+            this.kinds = Arrays.copyOf(kinds, steps);
+            this.lengths = Arrays.copyOf(lengths, steps);
+        }
+
+        private static int add(int[] kinds, int[] lengths, int steps, int kind, int length) {
+            if (length == 0)
+                return steps;
+            if (steps > 0 && kinds[steps - 1] == kind) {
+                lengths[steps - 1] += length;
+                return steps;
+            }
+            kinds[steps] = kind;
+            lengths[steps] = length;
+            return steps + 1;
+        }
+    }
+}
@@ -19,26 +19,53 @@ package net.openhft.chronicle.wire;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+
 class ValueInState {
 
+    static final int NO_HASH = 0;
     private static final long[] EMPTY_ARRAY = {};
+    private static final int[] EMPTY_HASHES = {};
+    private static final int MIN_SLOTS = 16;
     private long savedPosition;
     private int unexpectedSize;
     @NotNull
     private long[] unexpected = EMPTY_ARRAY;
+    @NotNull
+    private int[] unexpectedHash = EMPTY_HASHES;
+    // open addressing index of the unexpected fields by hash, holding the entry + 1, or 0 if empty.
+    @NotNull
+    private int[] slots = EMPTY_HASHES;
+    private int slotMask;
+    private boolean indexed;
+    // the readLimit of the fields indexed
+    private long indexLimit;
+    private boolean hasUnhashed;
 
     public void reset() {
         savedPosition = 0;
         unexpectedSize = 0;
+        indexed = false;
+        hasUnhashed = false;
     }
 
     public void addUnexpected(long position) {
+        addUnexpected(position, NO_HASH);
+    }
+
+    /**
+     * @param position of the unexpected field
+     * @param hash     of the field name so it can be skipped without re-reading the name, or NO_HASH to always re-read it
+     */
+    public void addUnexpected(long position, int hash) {
         if (unexpectedSize >= unexpected.length) {
             int newSize = unexpected.length * 3 / 2 + 8;
             @NotNull long[] unexpected2 = new long[newSize];
             System.arraycopy(unexpected, 0, unexpected2, 0, unexpected.length);
             unexpected = unexpected2;
+            unexpectedHash = Arrays.copyOf(unexpectedHash, newSize);
         }
+        unexpectedHash[unexpectedSize] = hash;
         unexpected[unexpectedSize++] = position;
     }
 
@@ -58,10 +85,82 @@ class ValueInState {
         return unexpected[index];
     }
 
+    public int unexpectedHash(int index) {
+        return unexpectedHash[index];
+    }
+
     public void removeUnexpected(int i) {
         int length = unexpectedSize - i - 1;
-        if (length > 0)
+        if (length > 0) {
             System.arraycopy(unexpected, i + 1, unexpected, i, length);
+            System.arraycopy(unexpectedHash, i + 1, unexpectedHash, i, length);
+        }
         unexpectedSize--;
     }
+
+    /**
+     * Index the unexpected fields added so far by their hash. They are looked up with {@link #firstSlot(int)} rather
+     * than scanned, and marked with {@link #consumed(int)} rather than removed.
+     *
+     * @param limit the readLimit of the fields, so the index isn't used for another document
+     */
+    public void buildIndex(long limit) {
+        int size = Math.max(MIN_SLOTS, Integer.highestOneBit(Math.max(1, unexpectedSize)) << 2);
+        if (slots.length < size)
+            slots = new int[size];
+        else
+            Arrays.fill(slots, 0, size, 0);
+        slotMask = size - 1;
+        hasUnhashed = false;
+        for (int i = 0; i < unexpectedSize; i++) {
+            int hash = unexpectedHash[i];
+            if (hash == NO_HASH) {
+                hasUnhashed = true;
+                continue;
+            }
+            int slot = firstSlot(hash);
+            while (slots[slot] != 0)
+                slot = nextSlot(slot);
+            slots[slot] = i + 1;
+        }
+        indexLimit = limit;
+        indexed = true;
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    /**
+     * @return whether the fields indexed were read up to this readLimit
+     */
+    public boolean isIndexedFor(long limit) {
+        return indexed && indexLimit == limit;
+    }
+
+    /**
+     * @return whether there are indexed fields without a hash, which have to be scanned.
+     */
+    public boolean hasUnhashed() {
+        return hasUnhashed;
+    }
+
+    public int firstSlot(int hash) {
+        return (hash ^ (hash >>> 16)) & slotMask;
+    }
+
+    public int nextSlot(int slot) {
+        return (slot + 1) & slotMask;
+    }
+
+    /**
+     * @return the unexpected field index in this slot or -1 if there are no more to probe.
+     */
+    public int slotEntry(int slot) {
+        return slots[slot] - 1;
+    }
+
+    public void consumed(int index) {
+        unexpected[index] = -1;
+    }
 }
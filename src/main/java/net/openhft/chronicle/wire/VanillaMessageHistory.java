@@ -18,14 +18,20 @@ package net.openhft.chronicle.wire;
 import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.bytes.BytesIn;
 import net.openhft.chronicle.bytes.BytesOut;
+import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.core.io.IORuntimeException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+
 @SuppressWarnings("rawtypes")
 public class VanillaMessageHistory extends SelfDescribingMarshallable implements MessageHistory {
     static  boolean USE_BYTES_MARSHALLABLE = Boolean.getBoolean("history.as.bytes");
     public static final int MESSAGE_HISTORY_LENGTH = 128;
+    // the old format starts with the number of sources which is never more than MESSAGE_HISTORY_LENGTH
+    private static final int COMPACT_FORMAT = 0xFF;
+    private static final int INITIAL_LENGTH = 8;
     private static final ThreadLocal<MessageHistory> THREAD_LOCAL =
             ThreadLocal.withInitial(() -> {
                 @NotNull VanillaMessageHistory veh = new VanillaMessageHistory();
@@ -38,12 +44,13 @@ public class VanillaMessageHistory extends SelfDescribingMarshallable implements
 
     private int sources;
     private int timings;
+    // grown on demand up to MESSAGE_HISTORY_LENGTH sources and twice as many timings
     @NotNull
-    private final int[] sourceIdArray = new int[MESSAGE_HISTORY_LENGTH];
+    private int[] sourceIdArray = new int[INITIAL_LENGTH];
     @NotNull
-    private final long[] sourceIndexArray = new long[MESSAGE_HISTORY_LENGTH];
+    private long[] sourceIndexArray = new long[INITIAL_LENGTH];
     @NotNull
-    private final long[] timingsArray = new long[MESSAGE_HISTORY_LENGTH * 2];
+    private long[] timingsArray = new long[INITIAL_LENGTH * 2];
     private boolean addSourceDetails = false;
 
     static MessageHistory getThreadLocal() {
@@ -176,32 +183,67 @@ public class VanillaMessageHistory extends SelfDescribingMarshallable implements
     }
 
     private void readMarshallable0(@NotNull BytesIn bytes) {
-        sources = bytes.readUnsignedByte();
+        int first = bytes.readUnsignedByte();
+        if (first == COMPACT_FORMAT) {
+            readCompact(bytes);
+            return;
+        }
+        // the original fixed width format
+        sources = first;
+        ensureSources(sources);
         for (int i = 0; i < sources; i++)
             sourceIdArray[i] = bytes.readInt();
         for (int i = 0; i < sources; i++)
             sourceIndexArray[i] = bytes.readLong();
         timings = bytes.readUnsignedByte();
+        ensureTimings(timings);
         for (int i = 0; i < timings; i++)
             timingsArray[i] = bytes.readLong();
     }
 
+    private void readCompact(@NotNull BytesIn bytes) {
+        sources = (int) bytes.readStopBit();
+        ensureSources(sources);
+        long index = 0;
+        for (int i = 0; i < sources; i++) {
+            sourceIdArray[i] = (int) bytes.readStopBit();
+            sourceIndexArray[i] = index += bytes.readStopBit();
+        }
+        timings = (int) bytes.readStopBit();
+        ensureTimings(timings);
+        if (timings == 0)
+            return;
+        long first = timingsArray[0] = bytes.readStopBit();
+        for (int i = 1; i < timings; i++)
+            timingsArray[i] = first + bytes.readStopBit();
+    }
+
+    /**
+     * Writes the sources and timings as stop bit encoded values. Each index is written as the difference from the
+     * previous source's index, and each timing as the difference from the first timing.
+     */
     @Override
     public void writeMarshallable(@NotNull BytesOut b) {
         BytesOut<?> bytes = b;
         bytes.comment("sources")
-                .writeUnsignedByte(sources);
-        for (int i = 0; i < sources; i++)
-            bytes.writeInt(sourceIdArray[i]);
-        for (int i = 0; i < sources; i++)
-            bytes.writeLong(sourceIndexArray[i]);
+                .writeUnsignedByte(COMPACT_FORMAT);
+        bytes.writeStopBit(sources);
+        long index = 0;
+        for (int i = 0; i < sources; i++) {
+            bytes.writeStopBit(sourceIdArray[i]);
+            bytes.writeStopBit(sourceIndexArray[i] - index);
+            index = sourceIndexArray[i];
+        }
 
         bytes.comment("timings")
-                .writeUnsignedByte(timings + 1);// one more time for this output
-        for (int i = 0; i < timings; i++) {
-            bytes.writeLong(timingsArray[i]);
-        }
-        bytes.writeLong(nanoTime()); // add time for this output
+                .writeStopBit(timings + 1);// one more time for this output
+        long now = nanoTime(); // add time for this output
+        long first = timings == 0 ? now : timingsArray[0];
+        bytes.writeStopBit(first);
+        for (int i = 1; i < timings; i++)
+            bytes.writeStopBit(timingsArray[i] - first);
+        if (timings > 0)
+            bytes.writeStopBit(now - first);
         dirty = false;
     }
 
@@ -240,6 +282,10 @@ public class VanillaMessageHistory extends SelfDescribingMarshallable implements
     }
 
     public void addSource(int id, long index) {
+        if (sources >= MESSAGE_HISTORY_LENGTH) {
+            throw new IllegalStateException("Have exceeded message history size: " + this);
+        }
+        ensureSources(sources + 1);
         sourceIdArray[sources] = id;
         sourceIndexArray[sources++] = index;
         dirty = true;
@@ -251,12 +297,32 @@ public class VanillaMessageHistory extends SelfDescribingMarshallable implements
     }
 
     public void addTiming(long l) {
-        if (timings >= timingsArray.length) {
+        if (timings >= MESSAGE_HISTORY_LENGTH * 2) {
             throw new IllegalStateException("Have exceeded message history size: " + this);
         }
+        ensureTimings(timings + 1);
         timingsArray[timings++] = l;
     }
 
+    private void ensureSources(int length) {
+        if (length <= sourceIdArray.length)
+            return;
+        if (length > MESSAGE_HISTORY_LENGTH)
+            throw new IllegalStateException("Have exceeded message history size: " + length + " sources");
+        int newLength = Math.min(Maths.nextPower2(length, INITIAL_LENGTH), MESSAGE_HISTORY_LENGTH);
+        sourceIdArray = Arrays.copyOf(sourceIdArray, newLength);
+        sourceIndexArray = Arrays.copyOf(sourceIndexArray, newLength);
+    }
+
+    private void ensureTimings(int length) {
+        if (length <= timingsArray.length)
+            return;
+        if (length > MESSAGE_HISTORY_LENGTH * 2)
+            throw new IllegalStateException("Have exceeded message history size: " + length + " timings");
+        int newLength = Math.min(Maths.nextPower2(length, INITIAL_LENGTH * 2), MESSAGE_HISTORY_LENGTH * 2);
+        timingsArray = Arrays.copyOf(timingsArray, newLength);
+    }
+
     /**
      * We need a custom toString as the base class toString calls writeMarshallable which does not mutate this,
      * but will display a different result every time you toString the object as it outputs System.nanoTime
@@ -286,6 +352,35 @@ public class VanillaMessageHistory extends SelfDescribingMarshallable implements
         return copy;
     }
 
+    /**
+     * Compares only the sources and timings in use as the arrays holding them grow on demand.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || o.getClass() != getClass()) return false;
+        VanillaMessageHistory that = (VanillaMessageHistory) o;
+        if (sources != that.sources || timings != that.timings || addSourceDetails != that.addSourceDetails)
+            return false;
+        for (int i = 0; i < sources; i++)
+            if (sourceIdArray[i] != that.sourceIdArray[i] || sourceIndexArray[i] != that.sourceIndexArray[i])
+                return false;
+        for (int i = 0; i < timings; i++)
+            if (timingsArray[i] != that.timingsArray[i])
+                return false;
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = sources;
+        for (int i = 0; i < sources; i++)
+            h = h * 0x6d0f27bd + sourceIdArray[i] * 31L + sourceIndexArray[i];
+        for (int i = 0; i < timings; i++)
+            h = h * 0x6d0f27bd + timingsArray[i];
+        return (int) Maths.agitate(h);
+    }
+
     private String toStringSources() {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < sources; i++) {
@@ -21,6 +21,7 @@ import net.openhft.chronicle.bytes.MethodReader;
 import net.openhft.chronicle.bytes.MethodReaderBuilder;
 import net.openhft.chronicle.bytes.MethodReaderInterceptorReturns;
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.compiler.CachedCompiler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -124,15 +125,17 @@ public class VanillaMethodReaderBuilder implements MethodReaderBuilder {
         String fullClassName = generateMethodReader.packageName() + "." + generateMethodReader.generatedClassName();
 
         try {
-            try {
-                final Class<?> generatedClass = Class.forName(fullClassName);
-
-                return instanceForGeneratedClass(vanillaSupplier, generatedClass, impls);
-            } catch (ClassNotFoundException e) {
-                Class<?> clazz = classCache.computeIfAbsent(fullClassName, name -> generateMethodReader.createClass());
-                if (clazz != null && clazz != COMPILE_FAILED) {
-                    return instanceForGeneratedClass(vanillaSupplier, clazz, impls);
+            final ClassLoader classLoader = impls[0].getClass().getClassLoader();
+            Class<?> clazz = classCache.computeIfAbsent(fullClassName, name -> {
+                try {
+                    // generated at build time for classes marked @Pregenerate
+                    return Class.forName(name, true, classLoader);
+                } catch (ClassNotFoundException e) {
+                    return generateMethodReader.createClass();
                 }
+            });
+            if (clazz != null && clazz != COMPILE_FAILED) {
+                return instanceForGeneratedClass(vanillaSupplier, clazz, impls);
             }
         } catch (Throwable e) {
             classCache.put(fullClassName, COMPILE_FAILED);
@@ -143,6 +146,13 @@ public class VanillaMethodReaderBuilder implements MethodReaderBuilder {
         return null;
     }
 
+    /**
+     * Generate the class this builder would use for these implementations, compiling it with the compiler provided.
+     */
+    Class<?> generateClass(CachedCompiler compiler, Object... impls) {
+        return new GenerateMethodReader(wireType, methodReaderInterceptorReturns, impls).createClass(compiler);
+    }
+
     @NotNull
     private MethodReader instanceForGeneratedClass(Supplier<MethodReader> vanillaSupplier,
                                                    Class<?> generatedClass, Object[] impls
@@ -21,6 +21,7 @@ import net.openhft.chronicle.bytes.*;
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.core.util.Builder;
+import net.openhft.compiler.CachedCompiler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -203,13 +204,9 @@ public class VanillaMethodWriterBuilder<T> implements Builder<T>, MethodWriterBu
     private T createInstance() {
         String fullClassName = packageName + "." + getClassName();
         try {
-            try {
-                return (T) newInstance(Class.forName(fullClassName));
-            } catch (ClassNotFoundException e) {
-                Class clazz = classCache.computeIfAbsent(fullClassName, this::newClass);
-                if (clazz != null && clazz != COMPILE_FAILED) {
-                    return (T) newInstance(clazz);
-                }
+            Class clazz = classCache.computeIfAbsent(fullClassName, this::loadOrNewClass);
+            if (clazz != null && clazz != COMPILE_FAILED) {
+                return (T) newInstance(clazz);
             }
         } catch (MethodWriterValidationException e) {
             throw e;
@@ -222,6 +219,30 @@ public class VanillaMethodWriterBuilder<T> implements Builder<T>, MethodWriterBu
         return null;
     }
 
+    private Class loadOrNewClass(final String fullClassName) {
+        try {
+            // generated at build time for interfaces marked @Pregenerate
+            return Class.forName(fullClassName, true, classLoader);
+        } catch (ClassNotFoundException e) {
+            return newClass(fullClassName);
+        }
+    }
+
+    /**
+     * Generate the class this builder would use, compiling it with the compiler provided.
+     */
+    Class<?> generateClass(CachedCompiler compiler) {
+        return GenerateMethodWriter.newClass(packageName + "." + getClassName(),
+                interfaces,
+                classLoader,
+                wireType,
+                genericEvent,
+                metaData,
+                useMethodIds,
+                updateInterceptor != null,
+                compiler);
+    }
+
     private Class newClass(final String fullClassName) {
         if (wireType.isText() || !Jvm.getBoolean("wire.generator.v2"))
             return GenerateMethodWriter.newClass(fullClassName,
@@ -55,6 +55,20 @@ public class WireDumper {
         return new WireDumper(wireIn, bytes);
     }
 
+    /**
+     * @return the number of the last data document dumped, or -1 if none
+     */
+    long headerNumber() {
+        return headerNumber;
+    }
+
+    /**
+     * Set the number of the data document before the next one dumped, e.g. when starting part way through.
+     */
+    void headerNumber(long headerNumber) {
+        this.headerNumber = headerNumber;
+    }
+
     @NotNull
     public String asString() {
         return asString(false);
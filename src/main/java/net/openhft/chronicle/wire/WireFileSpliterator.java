@@ -0,0 +1,258 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Reads the objects in a file which is memory mapped, rather than read onto the heap.
+ * <p>
+ * The range of the file can be split at a document boundary, so a parallel stream reads the file on many threads.
+ * For a TextWire or YamlWire the boundary is a line starting with <code>---</code>, for a BinaryWire it is the end of
+ * a value, found by skipping the length prefixed values from the start of the range.
+ * Other wires are read in one range.
+ * <p>
+ * Each range maps the file itself when it is first read, and releases it once read to the end. The ranges split from
+ * one file share their mappings, so {@link #closeAll()} releases those of ranges not read to the end, e.g. by a short
+ * circuiting stream.
+ */
+final class WireFileSpliterator<T> implements Spliterator<T> {
+    static final long DEFAULT_MIN_SPLIT_BYTES = 1 << 20;
+    private static final long MAPPING_CHUNK = 64 << 20;
+    private static final long MAPPING_OVERLAP = 16 << 20;
+
+    @NotNull
+    private final WireType wireType;
+    @NotNull
+    private final Class<T> expectedType;
+    @NotNull
+    private final File file;
+    private final long minSplitBytes;
+    @NotNull
+    private final Mappings mappings;
+    private long start;
+    private final long end;
+    @Nullable
+    private MappedBytes bytes;
+    private Wire wire;
+    private boolean done;
+
+    WireFileSpliterator(@NotNull WireType wireType, @NotNull Class<T> expectedType, @NotNull File file, long minSplitBytes) {
+        this(wireType, expectedType, file, minSplitBytes, new Mappings(), 0, file.length());
+    }
+
+    private WireFileSpliterator(@NotNull WireType wireType, @NotNull Class<T> expectedType, @NotNull File file, long minSplitBytes, @NotNull Mappings mappings, long start, long end) {
+        this.wireType = wireType;
+        this.expectedType = expectedType;
+        this.file = file;
+        this.minSplitBytes = minSplitBytes;
+        this.mappings = mappings;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(@NotNull Consumer<? super T> action) {
+        if (done)
+            return false;
+        Wire wire = wire();
+        if (isText())
+            skipSeparator();
+        ValueIn valueIn = wire.getValueIn();
+        if (valueIn.hasNext()) {
+            action.accept(valueIn.object(expectedType));
+            return true;
+        }
+        close();
+        return false;
+    }
+
+    @Nullable
+    @Override
+    public Spliterator<T> trySplit() {
+        if (done)
+            return null;
+        long position = bytes == null ? start : bytes.readPosition();
+        if (end - position < minSplitBytes * 2)
+            return null;
+        long mid = position + (end - position) / 2;
+        long boundary;
+        if (isText())
+            boundary = textBoundary(mid);
+        else if (wire() instanceof BinaryWire)
+            boundary = binaryBoundary(mid);
+        else
+            return null;
+        if (boundary <= position || boundary >= end)
+            return null;
+
+        // this keeps the second half, so a range already being read keeps its position.
+        WireFileSpliterator<T> prefix = new WireFileSpliterator<>(wireType, expectedType, file, minSplitBytes, mappings, position, boundary);
+        start = boundary;
+        if (bytes != null)
+            bytes.readPosition(boundary);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        // a size in bytes as the number of objects is not known.
+        return done ? 0 : end - (bytes == null ? start : bytes.readPosition());
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | IMMUTABLE;
+    }
+
+    void close() {
+        done = true;
+        if (bytes != null) {
+            mappings.release(bytes);
+            bytes = null;
+        }
+    }
+
+    /**
+     * Release the mappings of this range and every range split from the same file.
+     */
+    void closeAll() {
+        done = true;
+        bytes = null;
+        mappings.releaseAll();
+    }
+
+    int openMappings() {
+        return mappings.size();
+    }
+
+    private boolean isText() {
+        Wire wire = wire();
+        return wire instanceof TextWire || wire instanceof YamlWire;
+    }
+
+    @NotNull
+    private Wire wire() {
+        if (wire == null) {
+            try {
+                bytes = MappedBytes.mappedBytes(file, MAPPING_CHUNK, MAPPING_OVERLAP, true);
+            } catch (FileNotFoundException e) {
+                throw new IORuntimeException(e);
+            }
+            mappings.add(bytes);
+            bytes.readLimit(end);
+            bytes.readPosition(start);
+            wire = wireType.apply(bytes);
+        }
+        return wire;
+    }
+
+    private void skipSeparator() {
+        wire.consumePadding();
+        assert bytes != null;
+        if (bytes.readRemaining() >= 3
+                && bytes.peekUnsignedByte() == '-'
+                && bytes.peekUnsignedByte(bytes.readPosition() + 1) == '-'
+                && bytes.peekUnsignedByte(bytes.readPosition() + 2) == '-') {
+            bytes.readSkip(3);
+            while (bytes.peekUnsignedByte() == '-')
+                bytes.readSkip(1);
+        }
+    }
+
+    /**
+     * @return the start of the first line starting with --- at or after from, or end if there is none.
+     */
+    private long textBoundary(long from) {
+        assert bytes != null;
+        long position = bytes.readPosition();
+        try {
+            bytes.readPosition(from);
+            // -1 when not at the start of a line
+            int dashes = from > 0 && bytes.peekUnsignedByte(from - 1) == '\n' ? 0 : -1;
+            while (bytes.readRemaining() > 0) {
+                int ch = bytes.readUnsignedByte();
+                if (ch == '\n') {
+                    dashes = 0;
+                } else if (ch == '-' && dashes >= 0) {
+                    if (++dashes == 3)
+                        return bytes.readPosition() - 3;
+                } else {
+                    dashes = -1;
+                }
+            }
+            return end;
+        } finally {
+            bytes.readPosition(position);
+        }
+    }
+
+    /**
+     * @return the end of the first value which ends at or after from, or end if there is none.
+     */
+    private long binaryBoundary(long from) {
+        assert bytes != null;
+        long position = bytes.readPosition();
+        try {
+            ValueIn valueIn = wire.getValueIn();
+            while (bytes.readRemaining() > 0) {
+                valueIn.skipValue();
+                if (bytes.readPosition() >= from)
+                    return bytes.readPosition();
+            }
+            return end;
+        } finally {
+            bytes.readPosition(position);
+        }
+    }
+
+    // the mappings open by the ranges of one file, which can be read by many threads.
+    static final class Mappings {
+        private final Set<MappedBytes> open = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        synchronized void add(@NotNull MappedBytes bytes) {
+            open.add(bytes);
+        }
+
+        synchronized void release(@NotNull MappedBytes bytes) {
+            if (open.remove(bytes))
+                bytes.releaseLast();
+        }
+
+        synchronized void releaseAll() {
+            for (MappedBytes bytes : open)
+                bytes.releaseLast();
+            open.clear();
+        }
+
+        synchronized int size() {
+            return open.size();
+        }
+    }
+}
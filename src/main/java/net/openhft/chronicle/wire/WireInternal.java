@@ -314,7 +314,8 @@ public enum WireInternal {
         final Class<T> tClass;
 
         ObjectInterner(Class<T> tClass) {
-            super(256);
+            // grow to hold a large universe of values, e.g. instruments, rather than thrash.
+            super(256, 64 << 10, 0.1);
             this.tClass = tClass;
         }
 
@@ -42,8 +42,11 @@ import static net.openhft.chronicle.core.UnsafeMemory.*;
 @SuppressWarnings({"restriction", "rawtypes", "unchecked"})
 public class WireMarshaller<T> {
     private static final Class[] UNEXPECTED_FIELDS_PARAMETER_TYPES = {Object.class, ValueIn.class};
+    static final boolean GENERATE_MARSHALLER = Jvm.getBoolean("wire.generate.marshaller");
     static final StringBuilderPool SBP = new StringBuilderPool();
     private static final FieldAccess[] NO_FIELDS = {};
+    // an odd multiplier to combine the field hashes.
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
     public static final ClassLocal<WireMarshaller> WIRE_MARSHALLER_CL = ClassLocal.withInitial
             (tClass ->
                     Throwable.class.isAssignableFrom(tClass)
@@ -54,7 +57,7 @@ public class WireMarshaller<T> {
     private static final StringBuilderPool WSBP = new StringBuilderPool();
     @NotNull
     final FieldAccess[] fields;
-    final TreeMap<CharSequence, FieldAccess> fieldMap = new TreeMap<>(WireMarshaller::compare);
+    final CharSequencePerfectHashMap<FieldAccess> fieldMap;
 
     private final boolean isLeaf;
     @Nullable
@@ -68,9 +71,12 @@ public class WireMarshaller<T> {
         this.fields = fields;
         this.isLeaf = isLeaf;
         this.defaultValue = defaultValue;
+        Map<CharSequence, FieldAccess> map = new LinkedHashMap<>();
         for (FieldAccess field : fields) {
-            fieldMap.put(field.key.name(), field);
+            map.put(field.key.name(), field);
         }
+        // resolves out of order fields with one hash and one equals.
+        fieldMap = new CharSequencePerfectHashMap<>(map);
     }
 
     @NotNull
@@ -93,9 +99,14 @@ public class WireMarshaller<T> {
                 .filter(WireMarshaller::leafable)
                 .collect(Collectors.toList());
         boolean isLeaf = collect.isEmpty();
-        return overridesUnexpectedFields(tClass)
-                ? new WireMarshallerForUnexpectedFields<>(tClass, fields, isLeaf)
-                : new WireMarshaller<>(tClass, fields, isLeaf);
+        if (overridesUnexpectedFields(tClass))
+            return new WireMarshallerForUnexpectedFields<>(tClass, fields, isLeaf);
+        if (GENERATE_MARSHALLER && fields.length > 0) {
+            WireMarshaller<T> generated = GenerateWireMarshaller.newMarshaller(tClass, fields, isLeaf);
+            if (generated != null)
+                return generated;
+        }
+        return new WireMarshaller<>(tClass, fields, isLeaf);
     }
 
     protected static boolean leafable(FieldAccess c) {
@@ -174,15 +185,6 @@ public class WireMarshaller<T> {
         return null;
     }
 
-    private static int compare(CharSequence cs0, CharSequence cs1) {
-        for (int i = 0, len = Math.min(cs0.length(), cs1.length()); i < len; i++) {
-            int cmp = Character.compare(cs0.charAt(i), cs1.charAt(i));
-            if (cmp != 0)
-                return cmp;
-        }
-        return Integer.compare(cs0.length(), cs1.length());
-    }
-
     public WireMarshaller<T> excludeFields(String... fieldNames) {
         Set<String> fieldSet = new HashSet<>(Arrays.asList(fieldNames));
         return new WireMarshaller(Stream.of(fields)
@@ -295,6 +297,44 @@ public class WireMarshaller<T> {
         return true;
     }
 
+    /**
+     * Copy every field of one object to another of the same class, copying rather than sharing mutable values.
+     */
+    public void deepCopy(Object from, Object to) {
+        try {
+            for (@NotNull FieldAccess field : fields)
+                field.deepCopy(from, field.offset, to);
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Copy the fields of one object, which differ from the defaults, to another of the same class, as writing and
+     * reading without the default values does.
+     */
+    public void deepCopyNonDefault(Object from, Object to, Object defaults) {
+        try {
+            for (@NotNull FieldAccess field : fields) {
+                if (!field.sameValue(from, defaults))
+                    field.deepCopy(from, field.offset, to);
+            }
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * A hash of the fields read in place, consistent with {@link #isEqual(Object, Object)}
+     */
+    public int hashCode(Object o) {
+        long h = 0;
+        for (@NotNull FieldAccess field : fields)
+            h = h * HASH_MULTIPLIER + field.hashValue(o);
+        h = Maths.agitate(h);
+        return (int) (h ^ (h >>> 32));
+    }
+
     public Object getField(Object o, String name) throws NoSuchFieldException {
         try {
             FieldAccess field = fieldMap.get(name);
@@ -406,8 +446,15 @@ public class WireMarshaller<T> {
         @Nullable
         public static Object create(@NotNull Field field) {
             Class<?> type = field.getType();
-            if (type.isArray())
+            if (type.isArray()) {
+                if (type == int[].class)
+                    return new IntArrayFieldAccess(field);
+                if (type == long[].class)
+                    return new LongArrayFieldAccess(field);
+                if (type == double[].class)
+                    return new DoubleArrayFieldAccess(field);
                 return new ArrayFieldAccess(field);
+            }
             if (EnumSet.class.isAssignableFrom(type)) {
                 Type genericType = field.getGenericType();
                 if (genericType instanceof ParameterizedType) {
@@ -589,6 +636,41 @@ public class WireMarshaller<T> {
                 return false;
             }
         }
+
+        /**
+         * Copy the value of a field to this field of another object, copying into the value already in this field
+         * where possible.
+         *
+         * @param fromOffset of the field in from, the same type of field as this one
+         */
+        protected void deepCopy(Object from, long fromOffset, Object to) throws IllegalAccessException {
+            Class<?> type = field.getType();
+            if (type.isPrimitive())
+                MarshallableCopier.copyPrimitive(type, from, fromOffset, to, offset);
+            else
+                unsafePutObject(to, offset, MarshallableCopier.copyValue(unsafeGetObject(from, fromOffset), unsafeGetObject(to, offset)));
+        }
+
+        /**
+         * @return a hash of the value of this field, the same for values which are {@link #isEqual(Object, Object)}
+         */
+        protected long hashValue(Object o) {
+            return hashOf(unsafeGetObject(o, offset));
+        }
+
+        static long hashOf(Object value) {
+            if (value == null)
+                return 0;
+            // the same hash for any CharSequence with the same text, as sameValue compares the text
+            if (value instanceof CharSequence && !(value instanceof String)) {
+                CharSequence cs = (CharSequence) value;
+                int h = 0;
+                for (int i = 0; i < cs.length(); i++)
+                    h = 31 * h + cs.charAt(i);
+                return h;
+            }
+            return value.hashCode();
+        }
     }
 
     static class IntValueAccess extends FieldAccess {
@@ -911,6 +993,219 @@ public class WireMarshaller<T> {
                 throw new AssertionError(e);
             }
         }
+
+        @Override
+        protected long hashValue(Object o) {
+            Object a = unsafeGetObject(o, offset);
+            if (a == null)
+                return 0;
+            long h = 1;
+            for (int i = 0, len = Array.getLength(a); i < len; i++)
+                h = h * 31 + hashOf(Array.get(a, i));
+            return h;
+        }
+    }
+
+    /**
+     * Reads and writes a primitive array as a sequence in the same format as {@link ArrayFieldAccess} without boxing.
+     * The existing array is decoded into and kept when the length read matches, otherwise it is replaced.
+     */
+    abstract static class PrimitiveArrayFieldAccess extends FieldAccess {
+        private final BiConsumer<Object, ValueOut> writer = this::writeElements;
+        private final BiConsumer<Object, ValueIn> reader = this::readElements;
+
+        PrimitiveArrayFieldAccess(@NotNull Field field) {
+            super(field);
+        }
+
+        @Override
+        protected void getValue(Object o, @NotNull ValueOut write, Object previous) {
+            Object arr = unsafeGetObject(o, offset);
+            boolean leaf = write.swapLeaf(true);
+            if (arr == null)
+                write.nu11();
+            else
+                write.sequence(arr, writer);
+            write.swapLeaf(leaf);
+        }
+
+        @Override
+        protected void setValue(Object o, @NotNull ValueIn read, boolean overwrite) {
+            if (read.isNull()) {
+                unsafePutObject(o, offset, null);
+                return;
+            }
+            read.sequence(o, reader);
+        }
+
+        @Override
+        public void getAsBytes(Object o, Bytes bytes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void copy(Object from, Object to) {
+            Object arr = unsafeGetObject(from, offset);
+            Object arr2 = unsafeGetObject(to, offset);
+            if (arr == null) {
+                arr2 = null;
+            } else {
+                int length = Array.getLength(arr);
+                if (arr2 != null && Array.getLength(arr2) == length)
+                    System.arraycopy(arr, 0, arr2, 0, length);
+                else
+                    arr2 = copyOf(arr, length);
+            }
+            unsafePutObject(to, offset, arr2);
+        }
+
+        protected abstract void writeElements(Object arr, ValueOut out);
+
+        /**
+         * Reads the elements of a sequence into the array of field of o, replacing it if the length differs.
+         * The elements are decoded into a scratch buffer first so an array which is replaced is left unchanged.
+         */
+        protected abstract void readElements(Object o, ValueIn in);
+
+        protected abstract Object copyOf(Object arr, int length);
+    }
+
+    static class IntArrayFieldAccess extends PrimitiveArrayFieldAccess {
+        private static final int[] NO_INTS = {};
+        private static final ThreadLocal<int[]> INT_SCRATCH = ThreadLocal.withInitial(() -> new int[16]);
+
+        IntArrayFieldAccess(@NotNull Field field) {
+            super(field);
+        }
+
+        @Override
+        protected void writeElements(Object arr, ValueOut out) {
+            for (int i : (int[]) arr)
+                out.int32(i);
+        }
+
+        @Override
+        protected void readElements(Object o, ValueIn in) {
+            int[] scratch = INT_SCRATCH.get();
+            int count = 0;
+            while (in.hasNextSequenceItem()) {
+                if (count == scratch.length)
+                    INT_SCRATCH.set(scratch = Arrays.copyOf(scratch, count * 2));
+                scratch[count++] = in.int32();
+            }
+            int[] arr = unsafeGetObject(o, offset);
+            if (arr != null && arr.length == count)
+                System.arraycopy(scratch, 0, arr, 0, count);
+            else
+                unsafePutObject(o, offset, count == 0 ? NO_INTS : Arrays.copyOf(scratch, count));
+        }
+
+        @Override
+        protected Object copyOf(Object arr, int length) {
+            return Arrays.copyOf((int[]) arr, length);
+        }
+
+        @Override
+        protected boolean sameValue(Object o, Object o2) {
+            return Arrays.equals((int[]) unsafeGetObject(o, offset), (int[]) unsafeGetObject(o2, offset));
+        }
+
+        @Override
+        protected long hashValue(Object o) {
+            return Arrays.hashCode((int[]) unsafeGetObject(o, offset));
+        }
+    }
+
+    static class LongArrayFieldAccess extends PrimitiveArrayFieldAccess {
+        private static final long[] NO_LONGS = {};
+        private static final ThreadLocal<long[]> LONG_SCRATCH = ThreadLocal.withInitial(() -> new long[16]);
+
+        LongArrayFieldAccess(@NotNull Field field) {
+            super(field);
+        }
+
+        @Override
+        protected void writeElements(Object arr, ValueOut out) {
+            for (long l : (long[]) arr)
+                out.int64(l);
+        }
+
+        @Override
+        protected void readElements(Object o, ValueIn in) {
+            long[] scratch = LONG_SCRATCH.get();
+            int count = 0;
+            while (in.hasNextSequenceItem()) {
+                if (count == scratch.length)
+                    LONG_SCRATCH.set(scratch = Arrays.copyOf(scratch, count * 2));
+                scratch[count++] = in.int64();
+            }
+            long[] arr = unsafeGetObject(o, offset);
+            if (arr != null && arr.length == count)
+                System.arraycopy(scratch, 0, arr, 0, count);
+            else
+                unsafePutObject(o, offset, count == 0 ? NO_LONGS : Arrays.copyOf(scratch, count));
+        }
+
+        @Override
+        protected Object copyOf(Object arr, int length) {
+            return Arrays.copyOf((long[]) arr, length);
+        }
+
+        @Override
+        protected boolean sameValue(Object o, Object o2) {
+            return Arrays.equals((long[]) unsafeGetObject(o, offset), (long[]) unsafeGetObject(o2, offset));
+        }
+
+        @Override
+        protected long hashValue(Object o) {
+            return Arrays.hashCode((long[]) unsafeGetObject(o, offset));
+        }
+    }
+
+    static class DoubleArrayFieldAccess extends PrimitiveArrayFieldAccess {
+        private static final double[] NO_DOUBLES = {};
+        private static final ThreadLocal<double[]> DOUBLE_SCRATCH = ThreadLocal.withInitial(() -> new double[16]);
+
+        DoubleArrayFieldAccess(@NotNull Field field) {
+            super(field);
+        }
+
+        @Override
+        protected void writeElements(Object arr, ValueOut out) {
+            for (double d : (double[]) arr)
+                out.float64(d);
+        }
+
+        @Override
+        protected void readElements(Object o, ValueIn in) {
+            double[] scratch = DOUBLE_SCRATCH.get();
+            int count = 0;
+            while (in.hasNextSequenceItem()) {
+                if (count == scratch.length)
+                    DOUBLE_SCRATCH.set(scratch = Arrays.copyOf(scratch, count * 2));
+                scratch[count++] = in.float64();
+            }
+            double[] arr = unsafeGetObject(o, offset);
+            if (arr != null && arr.length == count)
+                System.arraycopy(scratch, 0, arr, 0, count);
+            else
+                unsafePutObject(o, offset, count == 0 ? NO_DOUBLES : Arrays.copyOf(scratch, count));
+        }
+
+        @Override
+        protected Object copyOf(Object arr, int length) {
+            return Arrays.copyOf((double[]) arr, length);
+        }
+
+        @Override
+        protected boolean sameValue(Object o, Object o2) {
+            return Arrays.equals((double[]) unsafeGetObject(o, offset), (double[]) unsafeGetObject(o2, offset));
+        }
+
+        @Override
+        protected long hashValue(Object o) {
+            return Arrays.hashCode((double[]) unsafeGetObject(o, offset));
+        }
     }
 
     static class EnumSetFieldAccess extends FieldAccess {
@@ -918,12 +1213,14 @@ public class WireMarshaller<T> {
         private final BiConsumer<Object, ValueOut> sequenceGetter;
         private final Class componentType;
         private final Supplier<EnumSet> enumSetSupplier;
+        private final boolean asBitmask;
         private BiConsumer<EnumSet, ValueIn> addAll;
 
         EnumSetFieldAccess(@NotNull final Field field, final Boolean isLeaf, final Object[] values, final Class componentType) {
             super(field, isLeaf);
             this.values = values;
             this.componentType = componentType;
+            this.asBitmask = field.getAnnotation(AsBitmask.class) != null && values.length <= Long.SIZE;
             this.enumSetSupplier = () -> EnumSet.noneOf(this.componentType);
             this.sequenceGetter = (o, out) -> sequenceGetter(o,
                     out, this.values, this.field, this.componentType);
@@ -956,6 +1253,13 @@ public class WireMarshaller<T> {
                 write.nu11();
                 return;
             }
+            if (asBitmask && write.isBinary()) {
+                long bitmask = 0;
+                for (Object e : c)
+                    bitmask |= 1L << ((Enum) e).ordinal();
+                write.int64(bitmask);
+                return;
+            }
             write.sequence(o, sequenceGetter);
         }
 
@@ -967,15 +1271,34 @@ public class WireMarshaller<T> {
                 field.set(o, coll);
             }
 
-            if (!read.sequence(coll, addAll)) {
-                Collection defaultColl = (Collection) field.get(defaults);
-                if (defaultColl == null) {
-                    field.set(o, null);
-                } else {
+            if (asBitmask && read.isBinary() && read.getBracketType() != BracketType.SEQ) {
+                if (read.isNull()) {
+                    readDefault(o, defaults, coll);
+                    return;
+                }
+                long bitmask = read.int64();
+                if (!coll.isEmpty())
                     coll.clear();
-                    if (!defaultColl.isEmpty())
-                        coll.addAll(defaultColl);
+                // ignores bits for constants this version doesn't have
+                for (long bits = bitmask; bits != 0; bits &= bits - 1) {
+                    int ordinal = Long.numberOfTrailingZeros(bits);
+                    if (ordinal < values.length)
+                        coll.add(values[ordinal]);
                 }
+                return;
+            }
+            if (!read.sequence(coll, addAll))
+                readDefault(o, defaults, coll);
+        }
+
+        private void readDefault(Object o, Object defaults, EnumSet coll) throws IllegalAccessException {
+            Collection defaultColl = (Collection) field.get(defaults);
+            if (defaultColl == null) {
+                field.set(o, null);
+            } else {
+                coll.clear();
+                if (!defaultColl.isEmpty())
+                    coll.addAll(defaultColl);
             }
         }
 
@@ -992,11 +1315,7 @@ public class WireMarshaller<T> {
                 field.set(to, coll);
             }
             coll.clear();
-            for (int i = this.values.length - 1; i != -1; i--) {
-                if (fromColl.contains(this.values[i])) {
-                    coll.add(this.values[i]);
-                }
-            }
+            coll.addAll(fromColl);
         }
 
         @Override
@@ -1021,15 +1340,31 @@ public class WireMarshaller<T> {
     static class CollectionFieldAccess extends FieldAccess {
         @NotNull
         final Supplier<Collection> collectionSupplier;
+        // copy into the elements already in the collection
+        private final boolean recycle;
         private final Class componentType;
         private final Class<?> type;
         private BiConsumer<Object, ValueOut> sequenceGetter;
+        @NotNull
+        private final BiConsumer<Collection, ValueIn> sequenceReader;
 
         public CollectionFieldAccess(@NotNull Field field, Boolean isLeaf, @Nullable Supplier<Collection> collectionSupplier, Class componentType, Class<?> type) {
             super(field, isLeaf);
             this.collectionSupplier = collectionSupplier == null ? newInstance() : collectionSupplier;
             this.componentType = componentType;
             this.type = type;
+            this.recycle = CollectionRecycler.RECYCLE_ELEMENTS || field.getAnnotation(RecycleElements.class) != null;
+            if (recycle) {
+                ThreadLocal<List<Object>> pool = ThreadLocal.withInitial(ArrayList::new);
+                sequenceReader = (c, in2) -> CollectionRecycler.read(c, in2, componentType, pool.get());
+            } else {
+                sequenceReader = (c, in2) -> {
+                    if (!c.isEmpty())
+                        c.clear();
+                    while (in2.hasNextSequenceItem())
+                        c.add(in2.object(componentType));
+                };
+            }
             sequenceGetter = (o, out) -> {
                 Collection coll;
                 try {
@@ -1117,6 +1452,21 @@ public class WireMarshaller<T> {
             coll.addAll(fromColl);
         }
 
+        @Override
+        protected void deepCopy(Object from, long fromOffset, Object to) {
+            Collection fromColl = (Collection) unsafeGetObject(from, fromOffset);
+            if (fromColl == null) {
+                unsafePutObject(to, offset, null);
+                return;
+            }
+            Collection coll = (Collection) unsafeGetObject(to, offset);
+            if (coll == null || coll == fromColl) {
+                coll = collectionSupplier.get();
+                unsafePutObject(to, offset, coll);
+            }
+            MarshallableCopier.copyElements(fromColl, coll, recycle);
+        }
+
         @Override
         protected void readValue(Object o, Object defaults, ValueIn read, boolean overwrite) throws IllegalAccessException {
             Collection coll = (Collection) field.get(o);
@@ -1124,12 +1474,7 @@ public class WireMarshaller<T> {
                 coll = collectionSupplier.get();
                 field.set(o, coll);
             }
-            if (!read.sequence(coll, (c, in2) -> {
-                if (!c.isEmpty())
-                    c.clear();
-                while (in2.hasNextSequenceItem())
-                    c.add(in2.object(componentType));
-            })) {
+            if (!read.sequence(coll, sequenceReader)) {
                 Collection defaultColl = (Collection) field.get(defaults);
                 if (defaultColl == null) {
                     field.set(o, null);
@@ -1206,6 +1551,24 @@ public class WireMarshaller<T> {
             });
         }
 
+        @Override
+        protected void deepCopy(Object from, long fromOffset, Object to) {
+            Collection fromColl = (Collection) unsafeGetObject(from, fromOffset);
+            if (fromColl == null) {
+                unsafePutObject(to, offset, null);
+                return;
+            }
+            Collection coll = (Collection) unsafeGetObject(to, offset);
+            if (coll == null || coll == fromColl) {
+                coll = collectionSupplier.get();
+                unsafePutObject(to, offset, coll);
+            } else if (!coll.isEmpty()) {
+                coll.clear();
+            }
+            // Strings are immutable
+            coll.addAll(fromColl);
+        }
+
         @Override
         protected void readValue(Object o, Object defaults, ValueIn read, boolean overwrite) throws IllegalAccessException {
             Collection coll = (Collection) field.get(o);
@@ -1293,6 +1656,21 @@ public class WireMarshaller<T> {
             map.putAll(fromMap);
         }
 
+        @Override
+        protected void deepCopy(Object from, long fromOffset, Object to) {
+            Map fromMap = (Map) unsafeGetObject(from, fromOffset);
+            if (fromMap == null) {
+                unsafePutObject(to, offset, null);
+                return;
+            }
+            Map map = (Map) unsafeGetObject(to, offset);
+            if (map == null || map == fromMap) {
+                map = collectionSupplier.get();
+                unsafePutObject(to, offset, map);
+            }
+            MarshallableCopier.copyEntries(fromMap, map);
+        }
+
         @Override
         protected void readValue(Object o, Object defaults, ValueIn read, boolean overwrite) throws IllegalAccessException {
             Map map = (Map) field.get(o);
@@ -1342,6 +1720,11 @@ public class WireMarshaller<T> {
             return unsafeGetBoolean(o, offset) == unsafeGetBoolean(o2, offset);
         }
 
+        @Override
+        protected long hashValue(Object o) {
+            return unsafeGetBoolean(o, offset) ? 1 : 0;
+        }
+
         @Override
         protected void copy(Object from, Object to) {
             unsafePutBoolean(to, offset, unsafeGetBoolean(from, offset));
@@ -1373,6 +1756,11 @@ public class WireMarshaller<T> {
             return unsafeGetByte(o, offset) == unsafeGetByte(o2, offset);
         }
 
+        @Override
+        protected long hashValue(Object o) {
+            return unsafeGetByte(o, offset);
+        }
+
         @Override
         protected void copy(Object from, Object to) {
             unsafePutByte(to, offset, unsafeGetByte(from, offset));
@@ -1404,6 +1792,11 @@ public class WireMarshaller<T> {
             return unsafeGetShort(o, offset) == unsafeGetShort(o2, offset);
         }
 
+        @Override
+        protected long hashValue(Object o) {
+            return unsafeGetShort(o, offset);
+        }
+
         @Override
         protected void copy(Object from, Object to) {
             unsafePutShort(to, offset, unsafeGetShort(from, offset));
@@ -1449,6 +1842,11 @@ public class WireMarshaller<T> {
             return unsafeGetChar(o, offset) == unsafeGetChar(o2, offset);
         }
 
+        @Override
+        protected long hashValue(Object o) {
+            return unsafeGetChar(o, offset);
+        }
+
         @Override
         protected void copy(Object from, Object to) {
             unsafePutChar(to, offset, unsafeGetChar(from, offset));
@@ -1484,6 +1882,11 @@ public class WireMarshaller<T> {
             return unsafeGetInt(o, offset) == unsafeGetInt(o2, offset);
         }
 
+        @Override
+        protected long hashValue(Object o) {
+            return unsafeGetInt(o, offset);
+        }
+
         @Override
         protected void copy(Object from, Object to) {
             unsafePutInt(to, offset, unsafeGetInt(from, offset));
@@ -1568,6 +1971,11 @@ public class WireMarshaller<T> {
             return getChar(o) == getChar(o2);
         }
 
+        @Override
+        protected long hashValue(Object o) {
+            return getChar(o);
+        }
+
         @Override
         protected void copy(Object from, Object to) {
             putChar(to, getChar(from));
@@ -1630,6 +2038,11 @@ public class WireMarshaller<T> {
             return getInt(o) == getInt(o2);
         }
 
+        @Override
+        protected long hashValue(Object o) {
+            return getInt(o);
+        }
+
         @Override
         protected void copy(Object from, Object to) {
             putInt(to, getInt(from));
@@ -1665,6 +2078,13 @@ public class WireMarshaller<T> {
             return Maths.same(unsafeGetFloat(o, offset), unsafeGetFloat(o2, offset));
         }
 
+        @Override
+        protected long hashValue(Object o) {
+            float f = unsafeGetFloat(o, offset);
+            // -0.0 is the same as 0.0
+            return f == 0 ? 0 : Float.floatToIntBits(f);
+        }
+
         @Override
         protected void copy(Object from, Object to) {
             unsafePutFloat(to, offset, unsafeGetFloat(from, offset));
@@ -1700,6 +2120,11 @@ public class WireMarshaller<T> {
             return unsafeGetLong(o, offset) == unsafeGetLong(o2, offset);
         }
 
+        @Override
+        protected long hashValue(Object o) {
+            return unsafeGetLong(o, offset);
+        }
+
         @Override
         protected void copy(Object from, Object to) {
             unsafePutLong(to, offset, unsafeGetLong(from, offset));
@@ -1753,6 +2178,11 @@ public class WireMarshaller<T> {
             return unsafeGetLong(o, offset) == unsafeGetLong(o2, offset);
         }
 
+        @Override
+        protected long hashValue(Object o) {
+            return unsafeGetLong(o, offset);
+        }
+
         @Override
         protected void copy(Object from, Object to) {
             unsafePutLong(to, offset, unsafeGetLong(from, offset));
@@ -1788,6 +2218,13 @@ public class WireMarshaller<T> {
             return Maths.same(unsafeGetDouble(o, offset), unsafeGetDouble(o2, offset));
         }
 
+        @Override
+        protected long hashValue(Object o) {
+            double d = unsafeGetDouble(o, offset);
+            // -0.0 is the same as 0.0
+            return d == 0 ? 0 : Double.doubleToLongBits(d);
+        }
+
         @Override
         protected void copy(Object from, Object to) {
             unsafePutDouble(to, offset, unsafeGetDouble(from, offset));
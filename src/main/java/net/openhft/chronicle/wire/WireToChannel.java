@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes documents with a 4-byte big-endian length prefix, as read by {@link InputStreamToWire} or
+ * {@link ChannelToWire}, to a channel.
+ * <p>
+ * The documents are batched in a direct buffer with their length prefixes, and the batch is written with one write
+ * once it reaches the batch size, or on {@link #flush()}. As a {@link MarshallableOut} it can be written to by a
+ * {@link net.openhft.chronicle.bytes.MethodWriter}.
+ * <p>
+ * Meta data documents are not supported by this format.
+ */
+public class WireToChannel implements MarshallableOut, Closeable {
+    static final int DEFAULT_BATCH_SIZE = 64 << 10;
+    private static final boolean NATIVE_BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+    private final WritableByteChannel channel;
+    private final int batchSize;
+    private final Bytes<ByteBuffer> bytes;
+    private final Wire wire;
+    private final WriteContext writeContext = new WriteContext();
+    private boolean closed;
+
+    public WireToChannel(WireType wireType, WritableByteChannel channel) {
+        this(wireType, channel, DEFAULT_BATCH_SIZE);
+    }
+
+    public WireToChannel(WireType wireType, WritableByteChannel channel, int batchSize) {
+        this.channel = channel;
+        this.batchSize = batchSize;
+        this.bytes = Bytes.elasticByteBuffer(batchSize + (batchSize >> 2));
+        this.wire = wireType.apply(bytes);
+    }
+
+    @NotNull
+    @Override
+    public DocumentContext writingDocument(boolean metaData) {
+        if (writeContext.isNotComplete())
+            throw new IllegalStateException("A document is already being written");
+        writeContext.start(metaData);
+        return writeContext;
+    }
+
+    @Override
+    public DocumentContext acquireWritingDocument(boolean metaData) {
+        writeContext.start(metaData);
+        return writeContext;
+    }
+
+    /**
+     * Write any batched documents to the channel.
+     */
+    public void flush() throws IOException {
+        if (bytes.writePosition() == 0)
+            return;
+        ByteBuffer bb = bytes.underlyingObject();
+        bb.limit(Math.toIntExact(bytes.writePosition()));
+        bb.position(0);
+        while (bb.remaining() > 0)
+            channel.write(bb);
+        bytes.clear();
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        } finally {
+            bytes.releaseLast();
+            Closeable.closeQuietly(channel);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    final class WriteContext implements WriteDocumentContext {
+        private long headerPosition;
+        private int count = 0;
+        private boolean chainedElement;
+        private boolean rollback;
+
+        @Override
+        public void start(boolean metaData) {
+            if (metaData)
+                throw new UnsupportedOperationException("Meta data documents are not supported");
+            if (count++ > 0)
+                return;
+            headerPosition = bytes.writePosition();
+            rollback = false;
+            chainedElement = false;
+            bytes.writeInt(0);
+        }
+
+        @Override
+        public boolean chainedElement() {
+            return chainedElement;
+        }
+
+        @Override
+        public void chainedElement(boolean chainedElement) {
+            this.chainedElement = chainedElement;
+        }
+
+        @Override
+        public boolean isMetaData() {
+            return false;
+        }
+
+        @Override
+        public boolean isPresent() {
+            return false;
+        }
+
+        @Override
+        public Wire wire() {
+            return wire;
+        }
+
+        @Override
+        public boolean isNotComplete() {
+            return count > 0;
+        }
+
+        @Override
+        public void rollbackOnClose() {
+            rollback = true;
+        }
+
+        @Override
+        public int sourceId() {
+            return -1;
+        }
+
+        @Override
+        public long index() {
+            return Long.MIN_VALUE;
+        }
+
+        @Override
+        public void close() {
+            if (chainedElement)
+                return;
+            if (count == 0)
+                throw new IllegalStateException("count == 0");
+            if (--count > 0)
+                return;
+            if (rollback) {
+                bytes.writePosition(headerPosition);
+                return;
+            }
+            int length = Math.toIntExact(bytes.writePosition() - headerPosition - 4);
+            bytes.writeInt(headerPosition, NATIVE_BIG_ENDIAN ? length : Integer.reverseBytes(length));
+            if (bytes.writePosition() >= batchSize) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    throw new IORuntimeException(e);
+                }
+            }
+        }
+    }
+}
@@ -34,6 +34,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -540,10 +541,30 @@ public enum WireType implements Function<Bytes, Wire>, LicenceCheck {
         return streamFromFile((Class) Marshallable.class, filename);
     }
 
+    /**
+     * Stream the objects in a file, which is memory mapped rather than read onto the heap.
+     * <p>
+     * A {@link Stream#parallel()} stream reads the file on many threads, splitting it at the document boundaries of a
+     * text or binary wire. A resource which isn't a file is read onto the heap as before.
+     */
     @NotNull
     public <T> Stream<T> streamFromFile(@NotNull Class<T> expectedType, String filename) throws IOException {
-        Bytes b = BytesUtil.readFile(filename);
-        return streamFromBytes(expectedType, b);
+        File file = new File(filename);
+        if (!file.exists()) {
+            URL url = urlFor(expectedType, filename);
+            if (!"file".equals(url.getProtocol()))
+                return streamFromBytes(expectedType, BytesUtil.readFile(filename));
+            try {
+                file = new File(url.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException("Unable to open " + url, e);
+            }
+        }
+        if (file.length() == 0)
+            return Stream.empty();
+        WireFileSpliterator<T> spliterator = new WireFileSpliterator<>(this, expectedType, file, WireFileSpliterator.DEFAULT_MIN_SPLIT_BYTES);
+        return StreamSupport.stream(spliterator, false)
+                .onClose(spliterator::closeAll);
     }
 
     @NotNull
@@ -369,8 +369,12 @@ public enum Wires {
 
     @NotNull
     public static <T extends Marshallable> T deepCopy(@NotNull T marshallable) {
-        Wire wire = acquireBinaryWire();
         @NotNull T t = (T) ObjectUtils.newInstance(marshallable.getClass());
+        if (MarshallableCopier.canCopy(marshallable)) {
+            MarshallableCopier.copyFields(marshallable, t);
+            return t;
+        }
+        Wire wire = acquireBinaryWire();
         boolean useSelfDescribing = t.usesSelfDescribingMessage() || !(t instanceof BytesMarshallable);
         if (useSelfDescribing) {
             marshallable.writeMarshallable(wire);
@@ -384,6 +388,13 @@ public enum Wires {
 
     @NotNull
     public static <T> T copyTo(Object source, @NotNull T target) {
+        if (source.getClass() == target.getClass() && MarshallableCopier.canCopy(source)) {
+            if (source != target)
+                MarshallableCopier.copyFields(source, target);
+            return target;
+        }
+        if (source.getClass() != target.getClass() && MarshallableCopier.project(source, target))
+            return target;
         Wire wire = acquireBinaryWire();
         wire.getValueOut().object(source);
         wire.getValueIn().typePrefix(); // drop the type prefix.
@@ -467,7 +478,10 @@ public enum Wires {
         if (clazz == Object.class)
             strategy = MAP;
         if (using == null) {
-            using = (E) strategy.newInstanceOrNull(clazz);
+            // a pooled instance when there is a pool for this thread.
+            using = (E) ObjectPools.acquire(clazz);
+            if (using == null)
+                using = (E) strategy.newInstanceOrNull(clazz);
             nullObject = using == null;
         }
         if (Throwable.class.isAssignableFrom(clazz))
@@ -37,6 +37,10 @@ public class YamlTokeniser {
             YamlToken.MAPPING_KEY,
             YamlToken.MAPPING_END,
             YamlToken.DIRECTIVES_END);
+    // the bytes readQuoted and readWords need to look at, others are skipped eight at a time.
+    private static final StopByteScanner DOUBLE_QUOTED = new StopByteScanner("\"\\", false);
+    private static final StopByteScanner SINGLE_QUOTED = new StopByteScanner("'\\", false);
+    private static final StopByteScanner WORDS = new StopByteScanner(":,[]{}#\n\r", false);
 
     private final BytesIn<?> in;
     protected final List<YTContext> contexts = new ArrayList<>();
@@ -489,6 +493,9 @@ public class YamlTokeniser {
     private void readWords() {
         blockStart = in.readPosition();
         while (in.readRemaining() > 0) {
+            skipWords();
+            if (in.readRemaining() <= 0)
+                break;
             int ch = in.readUnsignedByte();
             switch (ch) {
                 case ':':
@@ -529,6 +536,21 @@ public class YamlTokeniser {
         }
     }
 
+    private void skipWords() {
+        long pos = in.readPosition();
+        long next = WORDS.indexOf(in, pos, in.readLimit());
+        long end = next < 0 ? in.readLimit() : next;
+        if (end <= pos)
+            return;
+        for (long i = end - 1; i >= pos; i--) {
+            if (in.peekUnsignedByte(i) > ' ') {
+                blockEnd = i + 1;
+                break;
+            }
+        }
+        in.readPosition(end);
+    }
+
     private void contextPop() {
         YTContext context0 = contexts.remove(contextSize() - 1);
         if (flowDepth > contextSize())
@@ -564,7 +586,14 @@ public class YamlTokeniser {
     private void readQuoted(char stop) {
         blockQuote = stop;
         blockStart = in.readPosition();
+        final StopByteScanner scanner = stop == '"' ? DOUBLE_QUOTED : SINGLE_QUOTED;
         while (in.readRemaining() > 0) {
+            long next = scanner.indexOf(in, in.readPosition(), in.readLimit());
+            if (next < 0) {
+                in.readPosition(in.readLimit());
+                break;
+            }
+            in.readPosition(next);
             int ch = in.readUnsignedByte();
             if (ch == '\\') {
                 ch = in.readUnsignedByte();
@@ -18,14 +18,13 @@
 
 package net.openhft.chronicle.wire.internal;
 
+import net.openhft.chronicle.bytes.BytesStore;
 import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.core.io.IORuntimeException;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.BufferUnderflowException;
 
-import static net.openhft.chronicle.core.Maths.hash32;
-
 /**
  * This cache only gaurentees it will provide a String which matches the decoded bytes.
  * <p>
@@ -34,50 +33,235 @@ import static net.openhft.chronicle.core.Maths.hash32;
  * though the contents should always be the same.
  * <p>
  * While not technically thread safe, it should still behave correctly.
+ * <p>
+ * The entries are 4-way set associative, evicting with CLOCK within a set so recently used keys survive. The table
+ * can double in size, up to a maximum capacity, when the miss rate over a sample of lookups passes a threshold.
+ * <p>
+ * The lookups are counted per thread so a hit only writes to the table to mark the entry used, and only if it isn't
+ * already. Each thread adds its counts to the totals at the end of each sample.
  *
  * @author peter.lawrey
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public abstract class FromStringInterner<T> {
-    protected final InternerEntry<T>[] entries;
-    protected final int mask;
-    protected final int shift;
-    protected boolean toggle = false;
+    static final int WAYS = 4;
+    static final int SAMPLE_SIZE = 4096;
+    private static final int K0 = 0x6d0f27bd;
+
+    private final int maxCapacity;
+    private final int maxMissesPerSample;
+    private final ThreadLocal<Stats> stats = ThreadLocal.withInitial(Stats::new);
+    private volatile Table<T> table;
+    // the counts of samples ended, by all threads
+    private long hits, misses, evictions;
 
     protected FromStringInterner(int capacity) throws IllegalArgumentException {
+        this(capacity, capacity, 1.0);
+    }
+
+    /**
+     * @param capacity    initial number of entries
+     * @param maxCapacity the number of entries it can grow to
+     * @param maxMissRate the proportion of lookups which can miss before it grows
+     */
+    protected FromStringInterner(int capacity, int maxCapacity, double maxMissRate) throws IllegalArgumentException {
+        if (maxMissRate <= 0 || maxMissRate > 1)
+            throw new IllegalArgumentException("maxMissRate must be in (0, 1], was " + maxMissRate);
         int n = Maths.nextPower2(capacity, 128);
-        shift = Maths.intLog2(n);
-        entries = new InternerEntry[n];
-        mask = n - 1;
+        this.maxCapacity = Math.max(n, Maths.nextPower2(maxCapacity, 128));
+        this.maxMissesPerSample = (int) (SAMPLE_SIZE * maxMissRate);
+        this.table = new Table<>(n);
     }
 
     public T intern(@NotNull String s)
             throws IllegalArgumentException, IORuntimeException, BufferUnderflowException {
-        int hash = hash32(s);
-        int h = hash & mask;
-        InternerEntry<T> ie = entries[h];
-        int length = s.length();
-        if (ie != null && ie.key.length() == length && ie.key.equals(s))
-            return ie.t;
-        int h2 = (hash >> shift) & mask;
-        InternerEntry<T> s2 = entries[h2];
-        if (s2 != null && s2.key.length() == length && s2.key.equals(s))
-            return s2.t;
+        Table<T> table = this.table;
+        int set = table.setFor(hash(s));
+        InternerEntry<T>[] entries = table.entries;
+        for (int i = set; i < set + WAYS; i++) {
+            InternerEntry<T> ie = entries[i];
+            if (ie != null && ie.key.equals(s))
+                return hit(ie);
+        }
+        return miss(table, set, s);
+    }
+
+    /**
+     * Intern a value encoded as 8-bit characters, only creating the String on a miss.
+     *
+     * @param bs     containing the text
+     * @param offset of the first byte
+     * @param length of the text in bytes
+     */
+    public T intern(@NotNull BytesStore bs, long offset, int length)
+            throws IllegalArgumentException, IORuntimeException, BufferUnderflowException {
+        Table<T> table = this.table;
+        int set = table.setFor(hash(bs, offset, length));
+        InternerEntry<T>[] entries = table.entries;
+        for (int i = set; i < set + WAYS; i++) {
+            InternerEntry<T> ie = entries[i];
+            if (ie != null && isEqual(ie.key, bs, offset, length))
+                return hit(ie);
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++)
+            chars[i] = (char) bs.readUnsignedByte(offset + i);
+        return miss(table, set, new String(chars));
+    }
+
+    private T hit(InternerEntry<T> ie) {
+        // avoid writing to a shared entry if it is already marked
+        if (!ie.used)
+            ie.used = true;
+        Stats stats = this.stats.get();
+        stats.hits++;
+        if (++stats.lookups >= SAMPLE_SIZE)
+            endSample(stats);
+        return ie.t;
+    }
+
+    private T miss(Table<T> table, int set, String s) {
         @NotNull T t = getValue(s);
-        entries[ie == null || (s2 != null && toggle()) ? h : h2] = new InternerEntry<>(s, t);
+        Stats stats = this.stats.get();
+        stats.misses++;
+        if (table.add(set, new InternerEntry<>(s, t)))
+            stats.evictions++;
+        if (++stats.lookups >= SAMPLE_SIZE)
+            endSample(stats);
         return t;
     }
 
+    private void endSample(Stats stats) {
+        boolean grow = stats.misses > maxMissesPerSample;
+        addTotals(stats);
+        stats.reset();
+        Table<T> table = this.table;
+        if (grow && table.entries.length < maxCapacity)
+            this.table = table.grow();
+    }
+
+    private synchronized void addTotals(Stats stats) {
+        hits += stats.hits;
+        misses += stats.misses;
+        evictions += stats.evictions;
+    }
+
     @NotNull
     protected abstract T getValue(String s) throws IORuntimeException;
 
-    protected boolean toggle() {
-        return toggle = !toggle;
+    /**
+     * @return the hits of all threads up to their last sample, and all of this thread's
+     */
+    public synchronized long hits() {
+        return hits + stats.get().hits;
+    }
+
+    /**
+     * @return the misses of all threads up to their last sample, and all of this thread's
+     */
+    public synchronized long misses() {
+        return misses + stats.get().misses;
+    }
+
+    /**
+     * @return the evictions of all threads up to their last sample, and all of this thread's
+     */
+    public synchronized long evictions() {
+        return evictions + stats.get().evictions;
+    }
+
+    public int capacity() {
+        return table.entries.length;
+    }
+
+    private static boolean isEqual(String key, BytesStore bs, long offset, int length) {
+        if (key.length() != length)
+            return false;
+        for (int i = 0; i < length; i++)
+            if (key.charAt(i) != bs.readUnsignedByte(offset + i))
+                return false;
+        return true;
+    }
+
+    static int hash(CharSequence cs) {
+        long h = cs.length();
+        for (int i = 0; i < cs.length(); i++)
+            h = h * K0 + cs.charAt(i);
+        return (int) Maths.agitate(h);
+    }
+
+    static int hash(BytesStore bs, long offset, int length) {
+        long h = length;
+        for (int i = 0; i < length; i++)
+            h = h * K0 + bs.readUnsignedByte(offset + i);
+        return (int) Maths.agitate(h);
+    }
+
+    static final class Table<T> {
+        final InternerEntry<T>[] entries;
+        // the CLOCK hand of each set
+        final byte[] hands;
+        final int setMask;
+
+        Table(int capacity) {
+            entries = new InternerEntry[capacity];
+            hands = new byte[capacity / WAYS];
+            setMask = hands.length - 1;
+        }
+
+        int setFor(int hash) {
+            return (hash & setMask) * WAYS;
+        }
+
+        /**
+         * @return true if an entry was evicted
+         */
+        boolean add(int set, InternerEntry<T> entry) {
+            for (int i = set; i < set + WAYS; i++) {
+                if (entries[i] == null) {
+                    entries[i] = entry;
+                    return false;
+                }
+            }
+            int s = set / WAYS;
+            int hand = hands[s];
+            // at most one pass clearing the used flags before one is found
+            for (int i = 0; i < WAYS * 2; i++, hand = (hand + 1) & (WAYS - 1)) {
+                InternerEntry<T> ie = entries[set + hand];
+                if (ie == null || !ie.used)
+                    break;
+                ie.used = false;
+            }
+            entries[set + hand] = entry;
+            hands[s] = (byte) ((hand + 1) & (WAYS - 1));
+            return true;
+        }
+
+        Table<T> grow() {
+            Table<T> next = new Table<>(entries.length * 2);
+            for (InternerEntry<T> ie : entries) {
+                if (ie != null)
+                    next.add(next.setFor(hash(ie.key)), ie);
+            }
+            return next;
+        }
+    }
+
+    // the counts of one thread in the current sample
+    static final class Stats {
+        long hits, misses, evictions;
+        int lookups;
+
+        void reset() {
+            hits = misses = evictions = 0;
+            lookups = 0;
+        }
     }
 
     static class InternerEntry<T> {
         final String key;
         final T t;
+        boolean used;
 
         InternerEntry(String key, T t) {
             this.key = key;
@@ -0,0 +1,87 @@
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.MethodReader;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchingMarshallableOutTest extends WireTestCommon {
+
+    @Test
+    public void batchesByCountAndFlush() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        BatchingMarshallableOut batching = new BatchingMarshallableOut(wire, 1 << 20, 10);
+        Says says = batching.methodWriter(Says.class);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            String text = "hello " + i;
+            expected.add(text);
+            says.say(text);
+        }
+        assertEquals(5, batching.batchedMessages());
+        // the open batch isn't visible yet
+        assertEquals(2, countDocuments(wire));
+
+        batching.flush();
+        assertEquals(0, batching.batchedMessages());
+        assertEquals(3, countDocuments(wire));
+
+        List<String> actual = new ArrayList<>();
+        MethodReader reader = wire.methodReader((Says) actual::add);
+        while (reader.readOne()) {
+            // read them all
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void batchesByBytesAndRollsBack() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        BatchingMarshallableOut batching = new BatchingMarshallableOut(wire, 64, 1000);
+        Says says = batching.methodWriter(Says.class);
+        says.say("0123456789012345678901234567890123456789");
+        assertEquals(1, batching.batchedMessages());
+        says.say("0123456789012345678901234567890123456789");
+        assertEquals(0, batching.batchedMessages());
+
+        try (DocumentContext dc = batching.writingDocument()) {
+            dc.wire().write("say").text("rolled back");
+            dc.rollbackOnClose();
+        }
+        assertEquals(0, batching.batchedMessages());
+        says.say("last");
+        batching.close();
+
+        assertEquals(2, countDocuments(wire));
+        List<String> actual = new ArrayList<>();
+        MethodReader reader = wire.methodReader((Says) actual::add);
+        while (reader.readOne()) {
+            // read them all
+        }
+        assertEquals("[0123456789012345678901234567890123456789, 0123456789012345678901234567890123456789, last]",
+                actual.toString());
+    }
+
+    private static int countDocuments(Wire wire) {
+        long pos = wire.bytes().readPosition();
+        int count = 0;
+        while (true) {
+            try (DocumentContext dc = wire.readingDocument()) {
+                if (!dc.isPresent())
+                    break;
+                count++;
+                dc.wire().bytes().readPosition(dc.wire().bytes().readLimit());
+            }
+        }
+        wire.bytes().readPosition(pos);
+        return count;
+    }
+
+    interface Says {
+        void say(String text);
+    }
+}
@@ -0,0 +1,98 @@
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BinaryWireViewTest extends WireTestCommon {
+
+    @Test
+    public void readsFieldsInPlace() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        for (int i = 0; i < 2; i++) {
+            BWOrder order = new BWOrder();
+            order.symbol = "EURUSD" + i;
+            order.side = i == 0 ? BWSide.BUY : BWSide.SELL;
+            order.orderId = 1000 + i;
+            order.price = 1.25 + i;
+            order.quantity = 100 * (i + 1);
+            order.active = i == 0;
+            order.account = new BWAccount();
+            order.account.name = "acct" + i;
+            order.account.id = 7 + i;
+            wire.writeDocument(false, order);
+        }
+
+        BWOrderView view = BinaryWireView.of(BWOrderView.class);
+        for (int i = 0; i < 2; i++) {
+            try (DocumentContext dc = wire.readingDocument()) {
+                assertTrue(dc.isPresent());
+                long position = dc.wire().bytes().readPosition();
+                BinaryWireView.wrap(view, dc.wire());
+
+                // in any order, and more than once
+                assertEquals(1.25 + i, view.price(), 0.0);
+                assertEquals("EURUSD" + i, view.symbol().toString());
+                assertEquals(1000 + i, view.orderId());
+                assertEquals(1000 + i, view.orderId());
+                assertEquals(i == 0 ? BWSide.BUY : BWSide.SELL, view.side());
+                assertEquals(100 * (i + 1), view.quantity());
+                assertEquals(i == 0, view.active());
+                assertEquals("acct" + i, view.account().name());
+                assertEquals(7 + i, view.account().id());
+                // not in the document
+                assertNull(view.comment());
+                assertEquals(0, view.missing());
+
+                // nothing is consumed
+                assertEquals(position, dc.wire().bytes().readPosition());
+            }
+        }
+    }
+
+    enum BWSide {
+        BUY, SELL
+    }
+
+    interface BWOrderView {
+        CharSequence symbol();
+
+        BWSide side();
+
+        long orderId();
+
+        double price();
+
+        int quantity();
+
+        boolean active();
+
+        BWAccountView account();
+
+        String comment();
+
+        long missing();
+    }
+
+    interface BWAccountView {
+        String name();
+
+        long id();
+    }
+
+    static class BWOrder extends SelfDescribingMarshallable {
+        String symbol;
+        BWSide side;
+        long orderId;
+        double price;
+        int quantity;
+        boolean active;
+        BWAccount account;
+    }
+
+    static class BWAccount extends SelfDescribingMarshallable {
+        String name;
+        long id;
+    }
+}
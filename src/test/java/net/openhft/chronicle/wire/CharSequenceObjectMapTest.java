@@ -1,8 +1,10 @@
 package net.openhft.chronicle.wire;
 
+import net.openhft.chronicle.bytes.Bytes;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class CharSequenceObjectMapTest extends WireTestCommon {
     @Test
@@ -15,4 +17,35 @@ public class CharSequenceObjectMapTest extends WireTestCommon {
             assertEquals("" + i, map.get("" + i));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void resize() {
+        CharSequenceObjectMap<String> map = new CharSequenceObjectMap<>(4);
+        for (int i = 0; i < 1000; i++) {
+            map.put("key" + i, "value" + i);
+        }
+        map.put("key0", "value0b");
+        assertEquals(1000, map.size());
+        assertEquals("value0b", map.get("key0"));
+        for (int i = 1; i < 1000; i++) {
+            assertEquals("value" + i, map.get("key" + i));
+        }
+        assertNull(map.get("key1000"));
+    }
+
+    @Test
+    public void getBytesStore() {
+        CharSequenceObjectMap<String> map = new CharSequenceObjectMap<>(10);
+        map.put("hello", "world");
+        map.put("bye", "now");
+        Bytes<?> bytes = Bytes.from("say hello or bye");
+        try {
+            assertEquals("world", map.get(bytes, 4, 5));
+            assertEquals("now", map.get(bytes, 13, 3));
+            assertNull(map.get(bytes, 0, 3));
+            assertNull(map.get(bytes, 4, 4));
+        } finally {
+            bytes.releaseLast();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package net.openhft.chronicle.wire;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CharSequencePerfectHashMapTest extends WireTestCommon {
+    @Test
+    public void get() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < 40; i++)
+            fields.put("field" + i, "value" + i);
+        CharSequencePerfectHashMap<String> map = new CharSequencePerfectHashMap<>(fields);
+        assertEquals(40, map.size());
+        // one slot per name
+        assertEquals(40, map.keys.length);
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            sb.setLength(0);
+            sb.append("field").append(i);
+            assertEquals("value" + i, map.get(sb));
+        }
+        assertNull(map.get("field40"));
+        assertNull(map.get(""));
+    }
+
+    @Test
+    public void manyNames() {
+        Map<String, Integer> fields = new LinkedHashMap<>();
+        for (int i = 0; i < 5000; i++)
+            fields.put(Integer.toString(i, 36), i);
+        CharSequencePerfectHashMap<Integer> map = new CharSequencePerfectHashMap<>(fields);
+        assertEquals(5000, map.keys.length);
+        for (int i = 0; i < 5000; i++)
+            assertEquals((Integer) i, map.get(Integer.toString(i, 36)));
+        assertNull(map.get("not-a-name"));
+    }
+
+    @Test
+    public void empty() {
+        CharSequencePerfectHashMap<String> map = new CharSequencePerfectHashMap<>(new LinkedHashMap<>());
+        assertEquals(0, map.size());
+        assertNull(map.get("a"));
+    }
+}
@@ -130,6 +130,54 @@ public class EmbeddedBytesMarshallableTest extends WireTestCommon {
         bytes.releaseLast();
     }
 
+    @Test
+    public void layoutFromFieldOffsets() {
+        EBM2Auto auto = new EBM2Auto();
+        assertEquals(EBM2.DESCRIPTION, auto.$description());
+        assertEquals(EBM2.START, auto.$start());
+        assertEquals(EBM2.LENGTH, auto.$length());
+        EBM ebm = new EBM();
+        assertEquals(EBM.DESCRIPTION, ebm.description);
+        assertEquals(ebm.$description(), TriviallyCopyableLayout.LAYOUTS.get(EBM.class).description);
+
+        EBM3 e3 = new EBM3();
+        e3.l0 = 80;
+        e3.l2 = 82;
+        e3.i1 = 41;
+        e3.s0 = 20;
+        e3.b1 = 11;
+        e3.b2 = 12;
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap(64);
+        e3.writeMarshallable(bytes);
+        auto.l1 = auto.i0 = auto.s1 = auto.b0 = 99;
+        auto.readMarshallable(bytes);
+        EBM2Auto expected = new EBM2Auto();
+        expected.l0 = 80;
+        expected.i1 = 41;
+        expected.s0 = 20;
+        expected.b1 = 11;
+        assertEquals(expected, auto);
+        assertEquals(0, bytes.readRemaining());
+
+        // fewer fields written than read are zeroed
+        EBM1 e1 = new EBM1();
+        e1.l0 = 1;
+        e1.b0 = 2;
+        bytes.clear();
+        e1.writeMarshallable(bytes);
+        auto.readMarshallable(bytes);
+        expected = new EBM2Auto();
+        expected.l0 = 1;
+        expected.b0 = 2;
+        assertEquals(expected, auto);
+        bytes.releaseLast();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notOneBlock() {
+        new EBMSmallFirst();
+    }
+
     @Test(expected = DecoratedBufferUnderflowException.class)
     public void noData() {
         Bytes bytes = Bytes.allocateElasticOnHeap(64);
@@ -302,4 +350,20 @@ public class EmbeddedBytesMarshallableTest extends WireTestCommon {
             return LENGTH;
         }
     }
+
+    static class EBM2Auto extends SelfDescribingTriviallyCopyable {
+        long l0, l1;
+        int i0, i1;
+        short s0, s1;
+        byte b0, b1;
+    }
+
+    static class EBMSmallFirstBase extends SelfDescribingTriviallyCopyable {
+        byte b0;
+    }
+
+    // a long after a byte can't be described
+    static class EBMSmallFirst extends EBMSmallFirstBase {
+        long l0;
+    }
 }
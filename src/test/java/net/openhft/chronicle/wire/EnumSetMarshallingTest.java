@@ -31,6 +31,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class EnumSetMarshallingTest extends WireTestCommon {
     private static final String FULL_SET_SERIALISED_FORM =
@@ -130,6 +131,42 @@ public class EnumSetMarshallingTest extends WireTestCommon {
         bytes.releaseLast();
     }
 
+    @Test
+    public void shouldMarshallAsBitmask() {
+        final Bytes<ByteBuffer> bytes = Bytes.elasticByteBuffer();
+        final Bitmask written = new Bitmask(EnumSet.of(Thread.State.NEW, Thread.State.BLOCKED, Thread.State.TERMINATED));
+        final Bitmask read = new Bitmask(EnumSet.of(Thread.State.RUNNABLE));
+
+        @NotNull Wire tw = new BinaryWire(bytes);
+        tw.usePadding(false);
+        tw.writeDocument(false, w -> w.write(() -> "key").marshallable(written));
+        tw.writeDocument(false, w -> w.write(() -> "key").marshallable(new Foo(EnumSet.allOf(Thread.State.class))));
+
+        // NEW, BLOCKED and TERMINATED are ordinals 0, 2 and 5
+
+        assertEquals("--- !!data #binary\n" +
+                "key: {\n" +
+                "  f: 37\n" +
+                "}\n" +
+                FULL_SET_SERIALISED_FORM, Wires.fromSizePrefixedBlobs(bytes));
+        try (DocumentContext dc = tw.readingDocument()) {
+            dc.wire().read("key").marshallable(read);
+        }
+        assertEquals(written.f, read.f);
+
+        // the sequence of names is read as well
+        try (DocumentContext dc = tw.readingDocument()) {
+            dc.wire().read("key").marshallable(read);
+        }
+        assertEquals(EnumSet.allOf(Thread.State.class), read.f);
+
+        // text wires use the names
+        assertTrue(written.toString().contains("BLOCKED"));
+        assertEquals(written, Marshallable.fromString(written.toString()));
+        assertEquals(written, written.deepCopy());
+        bytes.releaseLast();
+    }
+
     private static final class Container extends SelfDescribingMarshallable {
         private List<Foo> f1 = new ArrayList<>(Arrays.asList(new Foo(EnumSet.allOf(Thread.State.class))));
         private List<Foo> f2 = new ArrayList<>(Arrays.asList(new Foo(EnumSet.noneOf(Thread.State.class))));
@@ -142,4 +179,13 @@ public class EnumSetMarshallingTest extends WireTestCommon {
             f = membership;
         }
     }
+
+    private static final class Bitmask extends SelfDescribingMarshallable {
+        @AsBitmask
+        private EnumSet<Thread.State> f;
+
+        private Bitmask(final EnumSet<Thread.State> membership) {
+            f = membership;
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.MethodReader;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.util.Time;
+import net.openhft.chronicle.wire.pregenerated.IsolatedEvents;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GenerateProxiesMainTest extends WireTestCommon {
+    @Test
+    public void generatesClassFiles() {
+        String tmp = OS.getTarget() + "/generateProxies-" + Time.uniqueId();
+        File classesDir = new File(tmp, "classes");
+        GenerateProxiesMain main = new GenerateProxiesMain(classesDir, new File(tmp, "sources"));
+        main.generateFor(PregeneratedEvents.class);
+        main.generateFor(PregeneratedEventsImpl.class);
+
+        assertEquals(3, main.generated().size());
+        for (String className : main.generated())
+            assertTrue(className, new File(classesDir, className.replace('.', '/') + ".class").exists());
+
+        // the builders pick up the pregenerated classes by name, rather than compiling classes of the same name
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        PregeneratedEvents writer = wire.methodWriter(PregeneratedEvents.class);
+        assertTrue(main.generatedClasses().contains(writer.getClass()));
+        writer.event("hello");
+
+        PregeneratedEventsImpl impl = new PregeneratedEventsImpl();
+        MethodReader reader = wire.methodReader(impl);
+        assertTrue(main.generatedClasses().contains(reader.getClass()));
+        assertTrue(reader.readOne());
+        assertEquals("[hello]", impl.events.toString());
+    }
+
+    @Test
+    public void loadsClassFilesWithoutCompiling() throws Exception {
+        String tmp = OS.getTarget() + "/generateProxies-" + Time.uniqueId();
+        File classesDir = new File(tmp, "classes");
+        GenerateProxiesMain main = new GenerateProxiesMain(classesDir, new File(tmp, "sources"));
+        main.generateFor(IsolatedEvents.class);
+        assertEquals(2, main.generated().size());
+
+        // a class loader of its own reads the interface and the pregenerated classes from the class files.
+        URL testClasses = IsolatedEvents.class.getProtectionDomain().getCodeSource().getLocation();
+        URL generatedClasses = classesDir.toURI().toURL();
+        try (URLClassLoader loader = new ChildFirstClassLoader(new URL[]{testClasses, generatedClasses}, getClass().getClassLoader())) {
+            Class<?> events = loader.loadClass(IsolatedEvents.class.getName());
+            assertNotSame(IsolatedEvents.class, events);
+
+            Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+            Object writer = wire.methodWriter(events);
+            assertSame(loader, writer.getClass().getClassLoader());
+            // a class compiled at runtime would have no code source
+            assertEquals(generatedClasses, writer.getClass().getProtectionDomain().getCodeSource().getLocation());
+
+            events.getMethod("event", String.class).invoke(writer, "hello");
+            try (DocumentContext dc = wire.readingDocument()) {
+                assertEquals("hello", dc.wire().read("event").text());
+            }
+        }
+    }
+
+    static final class ChildFirstClassLoader extends URLClassLoader {
+        private static final String PACKAGE = IsolatedEvents.class.getPackage().getName() + '.';
+
+        ChildFirstClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(PACKAGE))
+                return super.loadClass(name, resolve);
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null)
+                    c = findClass(name);
+                if (resolve)
+                    resolveClass(c);
+                return c;
+            }
+        }
+    }
+
+    @Pregenerate
+    interface PregeneratedEvents {
+        void event(String text);
+    }
+
+    @Pregenerate
+    static class PregeneratedEventsImpl implements PregeneratedEvents {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void event(String text) {
+            events.add(text);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GenerateWireMarshallerTest extends WireTestCommon {
+
+    @Test
+    public void generatedMatchesReflective() {
+        WireMarshaller<GWMDto> reflective = WireMarshaller.of(GWMDto.class);
+        WireMarshaller<GWMDto> generated = GenerateWireMarshaller.newMarshaller(GWMDto.class, reflective.fields, reflective.isLeaf());
+        assertNotNull(generated);
+        assertNotSame(WireMarshaller.class, generated.getClass());
+
+        GWMDto dto = new GWMDto();
+        dto.flag = true;
+        dto.b = 1;
+        dto.s = 2;
+        dto.i = 3;
+        dto.l = 4;
+        dto.f = 5.5f;
+        dto.d = 6.25;
+        dto.ts = 1_600_000_000_000L;
+        dto.text = "hello";
+        dto.list.add("world");
+
+        for (WireType wireType : new WireType[]{WireType.TEXT, WireType.BINARY}) {
+            Wire expected = wireType.apply(Bytes.allocateElasticOnHeap());
+            reflective.writeMarshallable(dto, expected);
+            Wire actual = wireType.apply(Bytes.allocateElasticOnHeap());
+            generated.writeMarshallable(dto, actual);
+            assertEquals(expected.bytes().toHexString(), actual.bytes().toHexString());
+
+            GWMDto dto2 = new GWMDto();
+            generated.readMarshallable(dto2, actual, generated.defaultValue(), true);
+            assertTrue(generated.isEqual(dto, dto2));
+            assertTrue(reflective.isEqual(dto, dto2));
+
+            generated.reset(dto2);
+            assertTrue(reflective.isEqual(new GWMDto(), dto2));
+            assertFalse(generated.isEqual(dto, dto2));
+        }
+    }
+
+    @Test
+    public void distinctNames() {
+        assertEquals("a_1b_C", GenerateWireMarshaller.identifierFor("a_b.C"));
+        assertEquals("a_b_1C", GenerateWireMarshaller.identifierFor("a.b_C"));
+        assertEquals("Outer_2Inner", GenerateWireMarshaller.identifierFor("Outer$Inner"));
+        assertEquals("Outer_1Inner", GenerateWireMarshaller.identifierFor("Outer_Inner"));
+
+        // these classes had the same generated name, so the second used the first's marshaller
+        WireMarshaller<GWM_Two> reflective1 = WireMarshaller.of(GWM_Two.class);
+        WireMarshaller<GWM_Two> generated1 = GenerateWireMarshaller.newMarshaller(GWM_Two.class, reflective1.fields, reflective1.isLeaf());
+        WireMarshaller<GWM.Two> reflective2 = WireMarshaller.of(GWM.Two.class);
+        WireMarshaller<GWM.Two> generated2 = GenerateWireMarshaller.newMarshaller(GWM.Two.class, reflective2.fields, reflective2.isLeaf());
+        assertNotNull(generated1);
+        assertNotNull(generated2);
+        assertNotSame(generated1.getClass(), generated2.getClass());
+
+        GWM.Two two = new GWM.Two();
+        two.x = 1;
+        two.y = "y";
+        Wire wire = WireType.TEXT.apply(Bytes.allocateElasticOnHeap());
+        generated2.writeMarshallable(two, wire);
+        Wire expected = WireType.TEXT.apply(Bytes.allocateElasticOnHeap());
+        reflective2.writeMarshallable(two, expected);
+        assertEquals(expected.toString(), wire.toString());
+    }
+
+    static class GWM_Two extends SelfDescribingMarshallable {
+        long a;
+    }
+
+    static class GWM {
+        static class Two extends SelfDescribingMarshallable {
+            int x;
+            String y;
+        }
+    }
+
+    static class GWMDto extends SelfDescribingMarshallable {
+        boolean flag;
+        byte b;
+        short s;
+        int i;
+        long l;
+        float f;
+        double d;
+        @LongConversion(MilliTimestampLongConverter.class)
+        long ts;
+        String text;
+        List<String> list = new ArrayList<>();
+    }
+}
@@ -0,0 +1,108 @@
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JsonCodecTest extends WireTestCommon {
+
+    @Test
+    public void generatedRoundTrip() {
+        JsonCodec<JCDto> codec = JsonCodec.of(JCDto.class);
+        assertNotSame(JsonCodec.ViaJSONWire.class, codec.getClass());
+
+        JCDto dto = new JCDto();
+        dto.flag = true;
+        dto.b = -1;
+        dto.s = 2;
+        dto.i = -3;
+        dto.l = Long.MIN_VALUE;
+        dto.f = 5.5f;
+        dto.d = 0.1;
+        dto.text = "tab\there \"quoted\" é€😀";
+        dto.side = Side.SELL;
+
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        codec.write(dto, bytes);
+        assertEquals("{\"flag\":true,\"b\":-1,\"s\":2,\"i\":-3,\"l\":-9223372036854775808,\"f\":5.5,\"d\":0.1," +
+                        "\"text\":\"tab\\there \\\"quoted\\\" é€😀\",\"side\":\"SELL\"}",
+                new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+
+        JCDto dto2 = codec.read(bytes, null);
+        assertEquals(dto, dto2);
+        assertEquals(0, bytes.readRemaining());
+
+        // JSONWire reads the same text
+        bytes.readPosition(0);
+        JCDto dto3 = new JSONWire(bytes).getValueIn().object(new JCDto(), JCDto.class);
+        assertEquals(dto, dto3);
+
+        // nulls and doubles which need parsing in full
+        dto.text = null;
+        dto.side = null;
+        for (double d : new double[]{1e-9, 1.2345678901234567e300, -123456789.123, 1e22, 0.0}) {
+            dto.d = d;
+            bytes.clear();
+            codec.write(dto, bytes);
+            assertEquals(dto, codec.read(bytes, dto2));
+        }
+    }
+
+    @Test
+    public void fallsBackToJSONWire() {
+        JsonCodec<JCDto> codec = JsonCodec.of(JCDto.class);
+        JCDto expected = new JCDto();
+        expected.i = 3;
+        expected.d = 1.5;
+        expected.text = "hi";
+        expected.side = Side.BUY;
+
+        // whitespace between tokens is handled without falling back
+        assertEquals(expected, codec.read(Bytes.from("{ \"flag\": false, \"b\": 0, \"s\": 0, \"i\": 3, \"l\": 0,\n" +
+                "  \"f\": 0, \"d\": 1.5, \"text\": \"hi\", \"side\": \"BUY\" }"), new JCDto()));
+        // out of order and missing fields are read by the JSONWire
+        JCDto dto = new JCDto();
+        dto.l = 99;
+        assertEquals(expected, codec.read(Bytes.from("{\"side\":\"BUY\",\"text\":\"hi\",\"d\":1.5,\"i\":3}"), dto));
+    }
+
+    @Test
+    public void unsupportedUsesJSONWire() {
+        JsonCodec<JCListDto> codec = JsonCodec.of(JCListDto.class);
+        assertSame(JsonCodec.ViaJSONWire.class, codec.getClass());
+
+        JCListDto dto = new JCListDto();
+        dto.name = "list";
+        dto.list.add("a");
+        dto.list.add("b");
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        codec.write(dto, bytes);
+        assertEquals(dto, codec.read(bytes, null));
+    }
+
+    enum Side {
+        BUY, SELL
+    }
+
+    static class JCDto extends SelfDescribingMarshallable {
+        boolean flag;
+        byte b;
+        short s;
+        int i;
+        long l;
+        float f;
+        double d;
+        String text;
+        Side side;
+    }
+
+    static class JCListDto extends SelfDescribingMarshallable {
+        String name;
+        List<String> list = new ArrayList<>();
+    }
+}
@@ -54,4 +54,53 @@ public class LongValueBitSetTest extends WireTestCommon {
             b.releaseLast();
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void rangesAndBulkOps() {
+        Bytes<ByteBuffer> b = Bytes.elasticByteBuffer();
+        Bytes<ByteBuffer> b2 = Bytes.elasticByteBuffer();
+        try {
+            Wire w = WireType.BINARY.apply(b);
+            w.usePadding(true);
+            Wire w2 = WireType.BINARY.apply(b2);
+            w2.usePadding(true);
+
+            int size = 1024;
+            LongValueBitSet actual = new LongValueBitSet(size, w);
+            LongValueBitSet other = new LongValueBitSet(size, w2);
+            BitSet expected = new BitSet();
+            BitSet expectedOther = new BitSet();
+
+            actual.set(3, 700);
+            expected.set(3, 700);
+            actual.clear(64, 130);
+            expected.clear(64, 130);
+            actual.flip(500, 900);
+            expected.flip(500, 900);
+            other.set(100, 600);
+            expectedOther.set(100, 600);
+            Assert.assertEquals(expected.cardinality(), actual.cardinality());
+            Assert.assertEquals(expected.nextClearBit(3), actual.nextClearBit(3));
+
+            actual.andNot(other);
+            expected.andNot(expectedOther);
+            Assert.assertEquals(expected.cardinality(), actual.cardinality());
+
+            actual.or(other);
+            expected.or(expectedOther);
+            Assert.assertEquals(expected.cardinality(), actual.cardinality());
+
+            actual.and(other);
+            expected.and(expectedOther);
+            Assert.assertEquals(expected.cardinality(), actual.cardinality());
+            for (int i = expected.nextSetBit(0); i >= 0; i = expected.nextSetBit(i + 1))
+                Assert.assertEquals(i, actual.nextSetBit(i));
+
+            Closeable.closeQuietly(actual, other);
+
+        } finally {
+            b.releaseLast();
+            b2.releaseLast();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package net.openhft.chronicle.wire;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MarshallableCopierTest extends WireTestCommon {
+
+    private static MCDto newDto() {
+        MCDto dto = new MCDto();
+        dto.flag = true;
+        dto.b = -1;
+        dto.c = 'x';
+        dto.i = 3;
+        dto.l = Long.MAX_VALUE;
+        dto.d = 1.5;
+        dto.text = "text";
+        dto.sb.append("builder");
+        dto.longs = new long[]{1, 2, 3};
+        dto.names = new String[]{"a", null, "c"};
+        dto.list.add(new MCInner("one", 1));
+        dto.list.add(new MCInner("two", 2));
+        dto.map.put("key", new MCInner("three", 3));
+        dto.inner = new MCInner("four", 4);
+        dto.side = MCSide.SELL;
+        return dto;
+    }
+
+    @Test
+    public void deepCopy() {
+        assertTrue(MarshallableCopier.canCopy(new MCDto()));
+        MCDto dto = newDto();
+        MCDto copy = Wires.deepCopy(dto);
+        assertEquals(dto, copy);
+        assertEquals(dto.toString(), copy.toString());
+        assertNotSame(dto.sb, copy.sb);
+        assertNotSame(dto.longs, copy.longs);
+        assertNotSame(dto.names, copy.names);
+        assertNotSame(dto.list, copy.list);
+        assertNotSame(dto.list.get(0), copy.list.get(0));
+        assertNotSame(dto.map.get("key"), copy.map.get("key"));
+        assertNotSame(dto.inner, copy.inner);
+        // immutable values are shared
+        assertSame(dto.text, copy.text);
+
+        // changing the copy doesn't change the original
+        copy.list.get(0).name = "changed";
+        copy.sb.append('!');
+        assertEquals("one", dto.list.get(0).name);
+        assertEquals("builder", dto.sb.toString());
+    }
+
+    @Test
+    public void copyToReusesValues() {
+        MCDto dto = newDto();
+        MCDto target = new MCDto();
+        target.text = "old";
+        target.list.add(new MCInner("old", 0));
+        StringBuilder sb = target.sb;
+        MCInner inner = target.inner = new MCInner("old", 0);
+
+        assertSame(target, Wires.copyTo(dto, target));
+        assertEquals(dto, target);
+        assertSame(sb, target.sb);
+        assertSame(inner, target.inner);
+
+        // fields which are null in the source are copied as null
+        dto.inner = null;
+        dto.list.clear();
+        Wires.copyTo(dto, target);
+        assertEquals(dto, target);
+        assertNull(target.inner);
+    }
+
+    @Test
+    public void project() {
+        MCDto dto = newDto();
+        MCProjected projected = Wires.project(MCProjected.class, dto);
+        assertEquals(dto.i, projected.i);
+        assertEquals(dto.text, projected.text);
+        assertEquals(dto.list, projected.list);
+        assertNotSame(dto.list.get(1), projected.list.get(1));
+        assertEquals(-1, projected.missing);
+
+        // a field missing from the source is reset
+        projected.missing = 99;
+        Wires.copyTo(dto, projected);
+        assertEquals(-1, projected.missing);
+    }
+
+    @Test
+    public void cfgKeepsFieldsTheSourceDoesNotWrite() {
+        MCCfg source = new MCCfg();
+        source.name = "source";
+        MCCfg target = new MCCfg();
+        target.name = "target";
+        target.count = 5;
+        target.list.add("kept");
+
+        // count and list have their default values so are not written, and the target keeps its own
+        Wires.copyTo(source, target);
+        assertEquals("source", target.name);
+        assertEquals(5, target.count);
+        assertEquals("[kept]", target.list.toString());
+
+        // projected to a class which resets the fields it doesn't read
+        MCProjected projected = new MCProjected();
+        projected.i = 9;
+        projected.missing = 7;
+        source.i = 0;
+        Wires.copyTo(source, projected);
+        assertEquals(0, projected.i);
+        assertEquals(-1, projected.missing);
+    }
+
+    enum MCSide {
+        BUY, SELL
+    }
+
+    static class MCInner extends SelfDescribingMarshallable {
+        String name;
+        int value;
+
+        MCInner(String name, int value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    static class MCDto extends SelfDescribingMarshallable {
+        boolean flag;
+        byte b;
+        char c;
+        int i;
+        long l;
+        double d;
+        String text;
+        StringBuilder sb = new StringBuilder();
+        long[] longs;
+        String[] names;
+        List<MCInner> list = new ArrayList<>();
+        Map<String, MCInner> map = new LinkedHashMap<>();
+        MCInner inner;
+        MCSide side;
+    }
+
+    static class MCCfg extends AbstractMarshallableCfg {
+        String name;
+        int i;
+        int count = 1;
+        List<String> list = new ArrayList<>();
+    }
+
+    static class MCProjected extends SelfDescribingMarshallable {
+        int i;
+        String text;
+        List<MCInner> list = new ArrayList<>();
+        int missing = -1;
+    }
+}
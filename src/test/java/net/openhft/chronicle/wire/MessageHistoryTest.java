@@ -149,10 +149,9 @@ public class MessageHistoryTest extends WireTestCommon {
                         "a5 57 04                                        # timing in nanos\n" +
                         "a5 ae 08                                        # timing in nanos\n" +
                         "a7 64 0c 2c b5 03 6e 00 00 ba 80 00             # 120962203520100\n" +
-                        "82 27 00 00 00 86                               # SetTimeMessageHistory\n" +
-                        "01 01 00 00 00 02 00 00 00 00 00 00 00          # sources\n" +
-                        "03 57 04 00 00 00 00 00 00 ae 08 00 00 00 00 00 # timings\n" +
-                        "00 64 0c 2c b5 03 6e 00 00\n",
+                        "82 11 00 00 00 86                               # SetTimeMessageHistory\n" +
+                        "ff 01 01 02                                     # sources\n" +
+                        "03 d7 08 d7 08 8d 90 b0 a9 bb c0 1b             # timings\n",
                 bytes.toHexString());
         vmh.addTiming(120962203520100L);
 
@@ -165,6 +164,57 @@ public class MessageHistoryTest extends WireTestCommon {
         assertEquals(vmh.toString(), vmh3.toString());
     }
 
+    @Test
+    public void readFixedWidthFormat() {
+        Bytes<?> bytes = Bytes.elasticHeapByteBuffer();
+        bytes.writeUnsignedByte(2);
+        bytes.writeInt(1);
+        bytes.writeInt(2);
+        bytes.writeLong(0xff);
+        bytes.writeLong(0xfff);
+        bytes.writeUnsignedByte(3);
+        bytes.writeLong(10_000);
+        bytes.writeLong(20_000);
+        bytes.writeLong(30_000);
+
+        VanillaMessageHistory history = new VanillaMessageHistory();
+        history.readMarshallable(bytes);
+        assertEquals("VanillaMessageHistory{" +
+                "sources: [1=0xff,2=0xfff] " +
+                "timings: [10000,20000,30000] " +
+                "addSourceDetails=false}", history.toString());
+        bytes.releaseLast();
+    }
+
+    @Test
+    public void compactRoundTrip() {
+        SetTimeMessageHistory history = new SetTimeMessageHistory();
+        // more than the initial capacity with indexes in uneven steps
+        for (int i = 0; i < 40; i++) {
+            history.addSource(i * 1000, 0x4A0F00000000L + i * 100 - (i % 3 == 0 ? 50 : 0));
+            history.addTiming(history.nanoTime());
+        }
+        history.addTiming(history.nanoTime() - 1_000_000);
+
+        Bytes<?> bytes = Bytes.elasticHeapByteBuffer();
+        history.writeMarshallable(bytes);
+        // under half the fixed width format
+        assertTrue(bytes.readRemaining() < (1 + 40 * 12 + 1 + 42 * 8) / 2);
+
+        VanillaMessageHistory history2 = new VanillaMessageHistory();
+        history2.readMarshallable(bytes);
+        assertEquals(40, history2.sources());
+        assertEquals(42, history2.timings());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(history.sourceId(i), history2.sourceId(i));
+            assertEquals(history.sourceIndex(i), history2.sourceIndex(i));
+        }
+        for (int i = 0; i < 41; i++)
+            assertEquals(history.timing(i), history2.timing(i));
+        assertEquals(history.nanoTime, history2.timing(41));
+        bytes.releaseLast();
+    }
+
     static class SetTimeMessageHistory extends VanillaMessageHistory {
         long nanoTime = 120962203520000L;
 
@@ -7,6 +7,7 @@ package net.openhft.chronicle.wire;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class MessagePathClassifierTest extends WireTestCommon {
 
@@ -32,6 +33,33 @@ public class MessagePathClassifierTest extends WireTestCommon {
         assertEquals(0, mpc.pathFor(messageHistory("sources: [ 1, 0, 2, 0, 5, 0 ]")));
     }
 
+    @Test
+    public void histograms() {
+        MessagePathClassifier mpc =
+                new MessagePathClassifier()
+                        .addPathForSourcesEnding(1, 1)
+                        .histograms(true)
+                        .addPathForSourcesEnding(0, 2, 1)
+                        .addPathForSourcesEnding(2, 2);
+        assertEquals(0, mpc.sample(messageHistory("sources: [ 2, 0, 1, 0 ] timings: [ 1000, 2000, 5000 ]")));
+        assertEquals(1, mpc.sample(messageHistory("sources: [ 3, 0, 1, 0 ] timings: [ 1000, 3000 ]")));
+        assertEquals(1, mpc.sample(messageHistory("sources: [ 1, 0 ] timings: [ 1000, 4000 ]")));
+        assertEquals(1, mpc.histogram(0).totalCount());
+        assertEquals(2, mpc.histogram(1).totalCount());
+        assertEquals(0, mpc.histogram(2).totalCount());
+
+        mpc.histograms(false);
+        assertNull(mpc.histogram(1));
+        assertEquals(2, mpc.sample(messageHistory("sources: [ 2, 0 ] timings: [ 1000, 4000 ]")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unclassified() {
+        new MessagePathClassifier()
+                .addPathForSourcesEnding(1, 1)
+                .pathFor(messageHistory("sources: [ 1, 0, 2, 0 ]"));
+    }
+
     @Test
     public void addPathForSourcesEnding() {
         new MessagePathClassifier()
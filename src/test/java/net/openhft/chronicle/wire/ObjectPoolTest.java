@@ -0,0 +1,78 @@
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ObjectPoolTest extends WireTestCommon {
+
+    @Test
+    public void releaseOnClose() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        for (int i = 0; i < 3; i++) {
+            Holder holder = new Holder();
+            holder.payload = new Payload(i, "name" + i);
+            wire.writeDocument(false, w -> w.write("holder").object(holder));
+        }
+
+        ClassObjectPool pool = new ClassObjectPool(true);
+        ObjectPool.forThisThread(pool);
+        try {
+            Holder first = null;
+            for (int i = 0; i < 3; i++) {
+                try (DocumentContext dc = wire.readingDocument()) {
+                    Holder holder = dc.wire().read("holder").object(Holder.class);
+                    assertEquals(new Payload(i, "name" + i), holder.payload);
+                    if (first == null)
+                        first = holder;
+                    else
+                        assertSame(first, holder);
+                    assertEquals(0, pool.freeCount(Payload.class));
+                }
+                assertEquals(1, pool.freeCount(Holder.class));
+                assertEquals(1, pool.freeCount(Payload.class));
+            }
+        } finally {
+            ObjectPool.forThisThread(null);
+        }
+    }
+
+    @Test
+    public void explicitRelease() {
+        Wire wire = WireType.TEXT.apply(Bytes.allocateElasticOnHeap());
+        wire.write("payload").object(new Payload(1, "one"));
+        wire.write("payload").object(new Payload(2, "two"));
+
+        ClassObjectPool pool = new ClassObjectPool(false);
+        ObjectPool.forThisThread(pool);
+        try {
+            Payload one = wire.read("payload").object(Payload.class);
+            assertEquals(new Payload(1, "one"), one);
+            pool.release(one);
+            Payload two = wire.read("payload").object(Payload.class);
+            assertSame(one, two);
+            assertEquals(new Payload(2, "two"), two);
+            assertEquals(0, pool.freeCount(Payload.class));
+        } finally {
+            ObjectPool.forThisThread(null);
+        }
+        // without a pool, a new object is created
+        wire.bytes().readPosition(0);
+        assertNotSame(wire.read("payload").object(Payload.class), wire.read("payload").object(Payload.class));
+    }
+
+    static class Holder extends SelfDescribingMarshallable {
+        Object payload;
+    }
+
+    static class Payload extends SelfDescribingMarshallable {
+        int id;
+        String name;
+
+        Payload(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
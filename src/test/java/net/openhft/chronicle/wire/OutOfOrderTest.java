@@ -19,6 +19,65 @@ public class OutOfOrderTest extends WireTestCommon {
         doTest(start + missing + records + end, "{\"a\":1,\"b\":null,\"records\":[ {\"id\":1} ], \"z\":99}");
     }
 
+    @Test
+    public void binaryFieldIndex() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        wire.write("a").int32(1)
+                .write("b").text("bee")
+                .write("nested").marshallable(w -> w.write("y").int32(2).write("x").int32(1))
+                .write("c").int64(3)
+                .write("c").int64(4);
+
+        // read in another order, with a missing field and a repeated name
+        assertEquals(3, wire.read("c").int64());
+        assertEquals("bee", wire.read("b").text());
+        assertEquals(0, wire.read("missing").int32());
+        wire.read("nested").marshallable(w -> {
+            assertEquals(1, w.read("x").int32());
+            assertEquals(2, w.read("y").int32());
+        });
+        assertEquals(1, wire.read("a").int32());
+        assertEquals(4, wire.read("c").int64());
+        assertEquals(0, wire.read("c").int64());
+    }
+
+    @Test
+    public void binaryFieldIndexPerDocument() {
+        Wire wire = WireType.BINARY_LIGHT.apply(Bytes.allocateElasticOnHeap());
+        for (int i = 1; i <= 3; i++) {
+            int n = i;
+            wire.writeDocument(false, w -> w.write("a").int32(n)
+                    .write("b").int32(n * 10)
+                    .write("c").int32(n * 100));
+        }
+
+        // the first document is read out of order, the others in order
+        try (DocumentContext dc = wire.readingDocument()) {
+            assertEquals(100, dc.wire().read("c").int32());
+            assertEquals(1, dc.wire().read("a").int32());
+            assertEquals(10, dc.wire().read("b").int32());
+        }
+        for (int i = 2; i <= 3; i++) {
+            try (DocumentContext dc = wire.readingDocument()) {
+                assertEquals(i, dc.wire().read("a").int32());
+                assertEquals(i * 10, dc.wire().read("b").int32());
+                assertEquals(i * 100, dc.wire().read("c").int32());
+            }
+        }
+
+        // documents read without a DocumentContext
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        Wire wire2 = WireType.BINARY_LIGHT.apply(bytes);
+        wire2.write("a").int32(1).write("b").int32(2);
+        assertEquals(2, wire2.read("b").int32());
+        assertEquals(1, wire2.read("a").int32());
+        bytes.clear();
+        wire2.write("a").int32(3).write("b").int32(4).write("c").int32(5);
+        assertEquals(3, wire2.read("a").int32());
+        assertEquals(4, wire2.read("b").int32());
+        assertEquals(5, wire2.read("c").int32());
+    }
+
     void doTest(String input, String expected) {
         Bytes<?> from = Bytes.from(input);
         JSONWire wire = new JSONWire(from);
@@ -0,0 +1,59 @@
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ParallelWireDumperTest extends WireTestCommon {
+
+    @Test
+    public void sameAsWireDumper() throws Exception {
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        Wire wire = WireType.BINARY_LIGHT.apply(bytes);
+        wire.writeDocument(true, w -> w.write("header").text("start"));
+        for (int i = 0; i < 100; i++) {
+            int n = i;
+            wire.writeDocument(false, w -> w.write(n % 3 == 0 ? "tick" : "trade")
+                    .marshallable(m -> m.write("id").int64(n).write("price").float64(n * 1.5)));
+        }
+        File file = Files.createTempFile("dump-", ".wire").toFile();
+        file.deleteOnExit();
+        Files.write(file.toPath(), bytes.toByteArray());
+
+        String expected = Wires.fromSizePrefixedBlobs(bytes);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int chunkBytes : new int[]{1, 100, 1000, 1 << 20}) {
+                assertEquals(expected, new ParallelWireDumper()
+                        .pool(pool)
+                        .chunkBytes(chunkBytes)
+                        .asString(file));
+            }
+
+            String ticks = new ParallelWireDumper()
+                    .pool(pool)
+                    .chunkBytes(100)
+                    .filter((metaData, eventName) -> !metaData && eventName.toString().equals("tick"))
+                    .asString(file);
+            assertEquals(34, count(ticks, "tick: {"));
+            assertEquals(0, count(ticks, "trade: {"));
+            assertFalse(ticks.contains("start"));
+            // the header numbers are those of the whole file
+            assertTrue(ticks, ticks.contains("header: 99\n"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int count(String text, String find) {
+        int count = 0;
+        for (int i = text.indexOf(find); i >= 0; i = text.indexOf(find, i + 1))
+            count++;
+        return count;
+    }
+}
@@ -0,0 +1,137 @@
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class RecycleElementsTest extends WireTestCommon {
+
+    @Test
+    public void elementsReused() {
+        for (WireType wireType : new WireType[]{WireType.BINARY, WireType.TEXT}) {
+            Wire wire = wireType.apply(Bytes.allocateElasticOnHeap());
+            Ladder three = new Ladder(new Level(1.5, 10), new Level(1.25, 20), new Level(1.0, 30));
+            Ladder two = new Ladder(new Level(2.5, 1), new Level(2.25, 2));
+            wire.write("a").object(Ladder.class, three);
+            wire.write("b").object(Ladder.class, two);
+            wire.write("c").object(Ladder.class, three);
+
+            Ladder ladder = new Ladder();
+            wire.read("a").object(ladder, Ladder.class);
+            assertEquals(three, ladder);
+            List<Level> levels = new ArrayList<>(ladder.levels);
+            List<Level> unique = new ArrayList<>(ladder.unique);
+
+            wire.read("b").object(ladder, Ladder.class);
+            assertEquals(two, ladder);
+            assertSame(levels.get(0), ladder.levels.get(0));
+            assertSame(levels.get(1), ladder.levels.get(1));
+
+            // the surplus level comes back from the pool
+            wire.read("c").object(ladder, Ladder.class);
+            assertEquals(three, ladder);
+            for (int i = 0; i < 3; i++)
+                assertSame(levels.get(i), ladder.levels.get(i));
+            // the set is read into the same elements in any order
+            assertEquals(3, ladder.unique.size());
+            for (Level level : ladder.unique)
+                assertTrue(unique.stream().anyMatch(l -> l == level));
+        }
+    }
+
+    @Test
+    public void mixedTypesUntyped() {
+        for (WireType wireType : new WireType[]{WireType.BINARY, WireType.TEXT}) {
+            Wire wire = wireType.apply(Bytes.allocateElasticOnHeap());
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("key", "value");
+            Mixed first = new Mixed(new Level(1.5, 10), new Rung("one"), "text", map);
+            Mixed second = new Mixed(new Rung("two"), "plain", new Level(2.5, 20), new Rung("three"));
+            wire.write("a").object(Mixed.class, first);
+            wire.write("b").object(Mixed.class, second);
+            wire.write("c").object(Mixed.class, first);
+
+            Mixed mixed = new Mixed();
+            wire.read("a").object(mixed, Mixed.class);
+            assertEquals(first, mixed);
+            // each element is read as the class written, not that of the element or pooled object it replaces
+            wire.read("b").object(mixed, Mixed.class);
+            assertEquals(second, mixed);
+            wire.read("c").object(mixed, Mixed.class);
+            assertEquals(first, mixed);
+
+            // the shared pool only gives out an element of the class written
+            List<Object> pool = new ArrayList<>();
+            Level pooled = new Level(9, 9);
+            pool.add(pooled);
+            Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+            Wire wire2 = wireType.apply(bytes);
+            wire2.write("list").sequence(v -> {
+                v.object(new Rung("four"));
+                v.object(new Level(3.5, 30));
+            });
+            List<Object> list = new ArrayList<>();
+            wire2.read("list").sequence(list, (l, in) -> CollectionRecycler.read(l, in, null, pool));
+            assertEquals(Arrays.asList(new Rung("four"), new Level(3.5, 30)), list);
+            assertSame(pooled, list.get(1));
+            assertTrue(pool.isEmpty());
+        }
+    }
+
+    static class Mixed extends SelfDescribingMarshallable {
+        @RecycleElements
+        List<Object> items = new ArrayList<>();
+
+        Mixed() {
+        }
+
+        Mixed(Object... items) {
+            this.items.addAll(Arrays.asList(items));
+        }
+    }
+
+    static class Rung extends SelfDescribingMarshallable {
+        String name;
+
+        Rung(String name) {
+            this.name = name;
+        }
+    }
+
+    static class Ladder extends SelfDescribingMarshallable {
+        @RecycleElements
+        List<Level> levels = new ArrayList<>();
+        @RecycleElements
+        Set<Level> unique = new LinkedHashSet<>();
+
+        Ladder() {
+        }
+
+        Ladder(Level... levels) {
+            this.levels.addAll(Arrays.asList(levels));
+            this.unique.addAll(Arrays.asList(levels));
+        }
+    }
+
+    static class Level extends SelfDescribingMarshallable {
+        double price;
+        long quantity;
+
+        Level() {
+        }
+
+        Level(double price, long quantity) {
+            this.price = price;
+            this.quantity = quantity;
+        }
+    }
+}
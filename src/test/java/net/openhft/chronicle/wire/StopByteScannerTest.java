@@ -0,0 +1,57 @@
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class StopByteScannerTest extends WireTestCommon {
+
+    @Test
+    public void indexOfMatchesByteLoop() {
+        String stops = "\"#\0\r\n}]:,\\";
+        Random random = new Random(1);
+        Bytes<?> bytes = Bytes.allocateElasticDirect(64);
+        for (int i = 0; i < 20_000; i++) {
+            bytes.clear();
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++)
+                bytes.writeUnsignedByte(random.nextInt(8) == 0
+                        ? stops.charAt(random.nextInt(stops.length()))
+                        : random.nextInt(256));
+            long from = random.nextInt(length + 1);
+            long expected = -1;
+            for (long j = from; j < length; j++) {
+                int b = bytes.readUnsignedByte(j);
+                if (b >= 0x80 || stops.indexOf(b) >= 0) {
+                    expected = j;
+                    break;
+                }
+            }
+            assertEquals(expected, StopByteScanner.END_OF_TEXT.indexOf(bytes, from, length));
+        }
+        bytes.releaseLast();
+    }
+
+    @Test
+    public void textRoundTrip() {
+        String[] parts = {"a", "hello world", "\"", "'", "\\", "£", "€", ":", ",", "}", "#"};
+        Random random = new Random(2);
+        for (Bytes<?> bytes : new Bytes[]{Bytes.allocateElasticOnHeap(), Bytes.allocateElasticDirect()}) {
+            Wire wire = WireType.TEXT.apply(bytes);
+            String[] texts = new String[500];
+            for (int i = 0; i < texts.length; i++) {
+                StringBuilder sb = new StringBuilder();
+                for (int j = random.nextInt(12) + 1; j > 0; j--)
+                    sb.append(parts[random.nextInt(parts.length)]);
+                texts[i] = sb.toString();
+                wire.write("field" + i).text(texts[i]);
+            }
+            for (int i = 0; i < texts.length; i++)
+                assertEquals(texts[i], wire.read("field" + i).text());
+            bytes.releaseLast();
+        }
+    }
+}
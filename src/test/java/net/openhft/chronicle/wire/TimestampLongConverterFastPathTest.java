@@ -0,0 +1,53 @@
+package net.openhft.chronicle.wire;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimestampLongConverterFastPathTest extends WireTestCommon {
+    private static final String[] ZONES = {"UTC", "Europe/London", "America/New_York", "Australia/Lord_Howe", "Asia/Kolkata"};
+
+    @Test
+    public void matchesDateTimeFormatter() {
+        Random random = new Random(1);
+        for (String zone : ZONES) {
+            DateTimeFormatter dtf = new DateTimeFormatterBuilder()
+                    .appendPattern("yyyy-MM-dd'T'HH:mm:ss")
+                    .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+                    .optionalStart().appendOffsetId().optionalEnd()
+                    .toFormatter()
+                    .withZone(ZoneId.of(zone));
+            NanoTimestampLongConverter converter = new NanoTimestampLongConverter(zone);
+            for (int i = 0; i < 10_000; i++) {
+                // up to the year 2100, rounded to varying precision
+                long nanos = (random.nextLong() >>> 1) % 4_102_444_800_000_000_000L;
+                nanos -= nanos % (long) Math.pow(10, random.nextInt(10));
+                if (nanos <= 0)
+                    continue;
+                String expected = dtf.format(Instant.ofEpochSecond(0, nanos));
+                if (zone.equals("UTC"))
+                    expected = expected.substring(0, expected.length() - 1);
+                String actual = converter.asString(nanos);
+                assertEquals(expected, actual);
+                assertEquals(actual, nanos, converter.parse(actual));
+            }
+        }
+    }
+
+    @Test
+    public void parseAcrossTransitions() {
+        MilliTimestampLongConverter london = new MilliTimestampLongConverter("Europe/London");
+        assertEquals("2021-03-28T00:59:59.999Z", london.asString(london.parse("2021-03-28T00:59:59.999")));
+        assertEquals("2021-03-28T03:00:00+01:00", london.asString(london.parse("2021-03-28T03:00:00")));
+        assertEquals("2021-10-31T00:30:00+01:00", london.asString(london.parse("2021-10-31T00:30:00")));
+        assertEquals(london.parse("2021-03-28T12:00:00+01:00"), london.parse("2021/03/28T11:00:00Z"));
+        assertEquals(london.parse("2021-03-28T12:00:00.1"), london.parse("2021-03-28T11:00:00.100Z"));
+    }
+}
@@ -4,11 +4,15 @@
 
 package net.openhft.chronicle.wire;
 
+import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.bytes.HexDumpBytes;
 import net.openhft.chronicle.core.pool.ClassAliasPool;
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
 
 public class WireMarshallerTest extends WireTestCommon {
 
@@ -36,4 +40,146 @@ public class WireMarshallerTest extends WireTestCommon {
                 "   a7 2b 20 d2 5c 8a 97 05 00                      # 1573995402108971\n", bytes.toHexString());
         bytes.releaseLast();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void primitiveArraysReused() {
+        for (WireType wireType : new WireType[]{WireType.BINARY, WireType.TEXT}) {
+            PrimitiveArrays pa = new PrimitiveArrays();
+            pa.ints = new int[]{1, -2, 3};
+            pa.longs = new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE};
+            pa.doubles = new double[]{1.5, Double.NaN, -0.0};
+
+            Wire wire = wireType.apply(Bytes.allocateElasticOnHeap());
+            wire.write("first").object(PrimitiveArrays.class, pa);
+            pa.doubles = new double[]{2.5};
+            wire.write("second").object(PrimitiveArrays.class, pa);
+
+            PrimitiveArrays pa2 = new PrimitiveArrays();
+            int[] ints = pa2.ints = new int[3];
+            long[] longs = pa2.longs = new long[2];
+            double[] doubles = pa2.doubles = new double[3];
+            wire.read("first").object(pa2, PrimitiveArrays.class);
+            assertSame(ints, pa2.ints);
+            assertNotSame(longs, pa2.longs);
+            assertSame(doubles, pa2.doubles);
+            assertArrayEquals(new int[]{1, -2, 3}, pa2.ints);
+            assertArrayEquals(new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE}, pa2.longs);
+            assertArrayEquals(new double[]{1.5, Double.NaN, -0.0}, pa2.doubles, 0.0);
+
+            // shorter
+            wire.read("second").object(pa2, PrimitiveArrays.class);
+            assertEquals(pa, pa2);
+
+            PrimitiveArrays pa3 = new PrimitiveArrays();
+            pa3.doubles = new double[1];
+            double[] doubles3 = pa3.doubles;
+            pa.copyTo(pa3);
+            assertSame(doubles3, pa3.doubles);
+            assertNotSame(pa.ints, pa3.ints);
+            assertEquals(pa, pa3);
+            pa3.ints[0]++;
+            assertNotEquals(pa, pa3);
+        }
+    }
+
+    @Test
+    public void hashCodeConsistentWithEquals() {
+        HashFields h1 = new HashFields();
+        HashFields h2 = new HashFields();
+        assertEquals(h1, h2);
+        assertEquals(h1.hashCode(), h2.hashCode());
+
+        h1.d = 0.0;
+        h2.d = -0.0;
+        h1.text = "abc";
+        h2.text = new StringBuilder("abc");
+        h1.sb.append("def");
+        h2.sb.append("def");
+        h1.names = new String[]{"a", null};
+        h2.names = new String[]{"a", null};
+        h1.nested = new PrimitiveArrays();
+        h1.nested.ints = new int[]{1, 2};
+        h2.nested = new PrimitiveArrays();
+        h2.nested.ints = new int[]{1, 2};
+        assertEquals(h1, h2);
+        assertEquals(h1.hashCode(), h2.hashCode());
+
+        Map<HashFields, String> map = new HashMap<>();
+        map.put(h1, "h1");
+        assertEquals("h1", map.get(h2));
+
+        h2.nested.ints[1] = 3;
+        assertNotEquals(h1, h2);
+        assertNotEquals(h1.hashCode(), h2.hashCode());
+        h2.nested.ints[1] = 2;
+        h2.f = Float.NaN;
+        h1.f = Float.NaN;
+        h2.c = 'x';
+        assertNotEquals(h1.hashCode(), h2.hashCode());
+        h1.c = 'x';
+        assertEquals(h1.hashCode(), h2.hashCode());
+    }
+
+    static class HashFields extends SelfDescribingMarshallable {
+        boolean flag = true;
+        byte b = 1;
+        char c = 'c';
+        short s = 2;
+        int i = 3;
+        long l = 4;
+        float f = 5.5f;
+        double d = 6.5;
+        CharSequence text;
+        StringBuilder sb = new StringBuilder();
+        String[] names;
+        PrimitiveArrays nested;
+    }
+
+    @Test
+    public void primitiveArraysReplacedNotOverwritten() {
+        for (WireType wireType : new WireType[]{WireType.BINARY, WireType.TEXT}) {
+            PrimitiveArrays pa = new PrimitiveArrays();
+            pa.ints = new int[]{1, 2};
+            pa.longs = new long[]{1, 2};
+            pa.doubles = new double[]{1, 2};
+            Wire wire = wireType.apply(Bytes.allocateElasticOnHeap());
+            wire.write("shorter").object(PrimitiveArrays.class, pa);
+            pa.ints = new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20};
+            pa.longs = new long[]{1, 2, 3, 4, 5};
+            pa.doubles = new double[]{1, 2, 3, 4, 5};
+            wire.write("longer").object(PrimitiveArrays.class, pa);
+
+            // the previous arrays are held elsewhere, e.g. by a consumer of the last message
+            int[] ints = {7, 8, 9};
+            long[] longs = {7, 8, 9};
+            double[] doubles = {7, 8, 9};
+            PrimitiveArrays pa2 = new PrimitiveArrays();
+            pa2.ints = ints;
+            pa2.longs = longs;
+            pa2.doubles = doubles;
+
+            wire.read("shorter").object(pa2, PrimitiveArrays.class);
+            assertArrayEquals(new int[]{1, 2}, pa2.ints);
+            assertArrayEquals(new long[]{1, 2}, pa2.longs);
+            assertArrayEquals(new double[]{1, 2}, pa2.doubles, 0.0);
+            assertArrayEquals(new int[]{7, 8, 9}, ints);
+            assertArrayEquals(new long[]{7, 8, 9}, longs);
+            assertArrayEquals(new double[]{7, 8, 9}, doubles, 0.0);
+
+            pa2.ints = ints;
+            pa2.longs = longs;
+            pa2.doubles = doubles;
+            wire.read("longer").object(pa2, PrimitiveArrays.class);
+            assertEquals(pa, pa2);
+            assertArrayEquals(new int[]{7, 8, 9}, ints);
+            assertArrayEquals(new long[]{7, 8, 9}, longs);
+            assertArrayEquals(new double[]{7, 8, 9}, doubles, 0.0);
+        }
+    }
+
+    static class PrimitiveArrays extends SelfDescribingMarshallable {
+        int[] ints;
+        long[] longs;
+        double[] doubles;
+    }
+}
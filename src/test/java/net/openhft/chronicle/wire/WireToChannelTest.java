@@ -0,0 +1,53 @@
+package net.openhft.chronicle.wire;
+
+import net.openhft.chronicle.bytes.MethodReader;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WireToChannelTest extends WireTestCommon {
+
+    @Test
+    public void methodWriterToMethodReader() throws IOException {
+        for (WireType wireType : new WireType[]{WireType.BINARY_LIGHT, WireType.TEXT}) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            // a small batch and buffer so it flushes, compacts and grows
+            WireToChannel wtc = new WireToChannel(wireType, Channels.newChannel(baos), 256);
+            Says says = wtc.methodWriter(Says.class);
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String text = "hello " + i;
+                if (i % 50 == 0)
+                    text += new String(new char[5000]).replace('\0', 'x');
+                expected.add(text);
+                says.say(text);
+            }
+            wtc.close();
+
+            // the format is the same as WireToOutputStream
+            InputStreamToWire istw = new InputStreamToWire(wireType, new ByteArrayInputStream(baos.toByteArray()));
+            assertEquals(expected.get(0), istw.readOne().read("say").text());
+
+            List<String> actual = new ArrayList<>();
+            ChannelToWire ctw = new ChannelToWire(wireType, Channels.newChannel(new ByteArrayInputStream(baos.toByteArray())), 4096);
+            MethodReader reader = ctw.methodReader((Says) actual::add);
+            while (reader.readOne()) {
+                // read them all
+            }
+            assertTrue(ctw.isEndOfStream());
+            assertEquals(expected, actual);
+            ctw.close();
+        }
+    }
+
+    interface Says {
+        void say(String text);
+    }
+}
@@ -1,14 +1,25 @@
 package net.openhft.chronicle.wire;
 
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.IOTools;
 import net.openhft.chronicle.core.pool.ClassAliasPool;
+import net.openhft.chronicle.core.util.Time;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class WiresFromFileTest extends WireTestCommon {
     @Test
@@ -27,6 +38,62 @@ public class WiresFromFileTest extends WireTestCommon {
         assertEquals("[EU, UY, AU]", symbols.toString());
     }
 
+    @Test
+    public void parallelStreamFromTextFile() throws IOException {
+        parallelStreamFromFile(WireType.TEXT);
+    }
+
+    @Test
+    public void parallelStreamFromBinaryFile() throws IOException {
+        parallelStreamFromFile(WireType.BINARY_LIGHT);
+    }
+
+    private void parallelStreamFromFile(WireType wireType) throws IOException {
+        ClassAliasPool.CLASS_ALIASES.addAlias(MDU.class);
+        List<String> expected = new ArrayList<>();
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        Wire wire = wireType.apply(bytes);
+        for (int i = 0; i < 2000; i++) {
+            MDU mdu = new MDU();
+            mdu.symbol = "S" + i;
+            expected.add(mdu.symbol);
+            wire.getValueOut().object(mdu);
+            if (wireType.isText())
+                bytes.append("---\n");
+        }
+        File file = new File(OS.getTarget(), "streamFromFile-" + Time.uniqueId());
+        IOTools.writeFile(file.getPath(), bytes.toByteArray());
+        try {
+            // small splits so this file is read in many parts
+            Spliterator<MDU> spliterator = new WireFileSpliterator<>(wireType, MDU.class, file, 1 << 10);
+            Spliterator<MDU> prefix = spliterator.trySplit();
+            assertNotNull(prefix);
+            List<String> symbols = new ArrayList<>();
+            prefix.forEachRemaining(m -> symbols.add(m.symbol));
+            spliterator.forEachRemaining(m -> symbols.add(m.symbol));
+            assertEquals(expected, symbols);
+
+            List<String> parallel = StreamSupport.stream(new WireFileSpliterator<>(wireType, MDU.class, file, 1 << 10), true)
+                    .map(m -> m.symbol)
+                    .collect(Collectors.toList());
+            assertEquals(expected, parallel);
+
+            // a short circuiting stream leaves ranges unread, which are released on close
+            WireFileSpliterator<MDU> root = new WireFileSpliterator<>(wireType, MDU.class, file, 1 << 10);
+            try (Stream<MDU> stream = StreamSupport.stream(root, true).onClose(root::closeAll)) {
+                assertTrue(stream.anyMatch(m -> m.symbol.equals("S1000")));
+            }
+            assertEquals(0, root.openMappings());
+
+            assertEquals(expected, wireType.streamFromFile(MDU.class, file.getPath())
+                    .parallel()
+                    .map(m -> m.symbol)
+                    .collect(Collectors.toList()));
+        } finally {
+            file.delete();
+        }
+    }
+
     static class MDU extends SelfDescribingMarshallable {
         String symbol;
     }
@@ -0,0 +1,87 @@
+package net.openhft.chronicle.wire.internal;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.wire.WireTestCommon;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FromStringInternerTest extends WireTestCommon {
+
+    @Test
+    public void hotKeysSurvive() {
+        CountingInterner interner = new CountingInterner(128, 128);
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("hot", interner.intern("hot"));
+            interner.intern("cold" + i);
+        }
+        assertEquals(128, interner.capacity());
+        assertEquals(10_001, interner.misses());
+        assertEquals(9_999, interner.hits());
+        assertTrue(interner.evictions() > 0);
+        assertEquals(interner.misses(), interner.getValueCount);
+    }
+
+    @Test
+    public void growsWhenMissing() {
+        CountingInterner interner = new CountingInterner(128, 16384);
+        // more keys than fit initially, looked up repeatedly
+        for (int j = 0; j < 20; j++)
+            for (int i = 0; i < 4000; i++)
+                assertEquals("key" + i, interner.intern("key" + i));
+        assertTrue(interner.capacity() >= 4096);
+        long misses = interner.misses();
+        for (int i = 0; i < 4000; i++)
+            interner.intern("key" + i);
+        assertTrue(interner.misses() - misses < 400);
+    }
+
+    @Test
+    public void internBytesStore() {
+        CountingInterner interner = new CountingInterner(128, 128);
+        Bytes<?> bytes = Bytes.from("xxhelloxx");
+        try {
+            String hello = interner.intern(bytes, 2, 5);
+            assertEquals("hello", hello);
+            assertSame(hello, interner.intern("hello"));
+            assertSame(hello, interner.intern(bytes, 2, 5));
+            assertEquals(1, interner.misses());
+            assertEquals(2, interner.hits());
+        } finally {
+            bytes.releaseLast();
+        }
+    }
+
+    @Test
+    public void countsOfOtherThreads() throws InterruptedException {
+        CountingInterner interner = new CountingInterner(128, 128);
+        Thread[] threads = new Thread[2];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                // whole samples, so they are all added to the totals
+                for (int i = 0; i < FromStringInterner.SAMPLE_SIZE * 2; i++)
+                    interner.intern("key" + (i & 7));
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(FromStringInterner.SAMPLE_SIZE * 4, interner.hits() + interner.misses());
+        assertTrue(interner.misses() >= 8);
+    }
+
+    static class CountingInterner extends FromStringInterner<String> {
+        int getValueCount;
+
+        CountingInterner(int capacity, int maxCapacity) {
+            super(capacity, maxCapacity, 0.1);
+        }
+
+        @Override
+        protected @NotNull String getValue(String s) {
+            getValueCount++;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package net.openhft.chronicle.wire.pregenerated;
+
+import net.openhft.chronicle.wire.Pregenerate;
+
+/**
+ * Only loaded by GenerateProxiesMainTest in a class loader of its own, so the MethodWriter for it can only come from
+ * the pregenerated class files.
+ */
+@Pregenerate
+public interface IsolatedEvents {
+    void event(String text);
+}